@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.internal.index.IIndex;
+import org.eclipse.m2e.core.internal.index.UserInputSearchExpression;
+import org.eclipse.m2e.core.repository.IRepository;
+
+
+/**
+ * Measures search throughput of the local repository index while the index is updated concurrently. Index updates
+ * build the new index aside and only hold the repository write lock to swap it in, so searches must keep completing
+ * while updates run.
+ */
+public class IndexSearchThroughputTest {
+  private static final Logger log = LoggerFactory.getLogger(IndexSearchThroughputTest.class);
+
+  private static final int SEARCH_THREADS = 4;
+
+  private static final long DURATION = 5 * 1000L;
+
+  private static final String[] TERMS = {"junit", "maven", "plexus", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+      "commons", "slf4j", "guava"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+  private NexusIndexManager indexManager;
+
+  private IRepository repository;
+
+  @Before
+  public void setUp() throws Exception {
+    indexManager = (NexusIndexManager) MavenPlugin.getIndexManager();
+    repository = MavenPlugin.getRepositoryRegistry().getLocalRepository();
+    indexManager.updateIndex(repository, true, new NullProgressMonitor());
+  }
+
+  @Test
+  public void testSearchThroughputDuringUpdates() throws Exception {
+    Result baseline = run(false);
+    Result contended = run(true);
+
+    log.info("Searches without updates: {}", baseline); //$NON-NLS-1$
+    log.info("Searches during {} index updates: {}", contended.updates, contended); //$NON-NLS-1$
+
+    Assert.assertTrue(contended.failures.toString(), contended.failures.isEmpty());
+    Assert.assertTrue("No index update ran", contended.updates > 0); //$NON-NLS-1$
+    for(int i = 0; i < SEARCH_THREADS; i++ ) {
+      // searches never wait for a whole index update
+      String message = "Search thread " + i + " made no progress"; //$NON-NLS-1$ //$NON-NLS-2$
+      Assert.assertTrue(message, contended.searches[i] > 0);
+    }
+  }
+
+  private Result run(boolean update) throws InterruptedException {
+    final Result result = new Result();
+    final AtomicBoolean done = new AtomicBoolean();
+    final CountDownLatch finished = new CountDownLatch(SEARCH_THREADS);
+    final NexusIndex index = indexManager.getLocalIndex();
+
+    List<Thread> threads = new ArrayList<Thread>();
+    for(int i = 0; i < SEARCH_THREADS; i++ ) {
+      final int thread = i;
+      threads.add(new Thread("search " + i) { //$NON-NLS-1$
+        public void run() {
+          try {
+            int searches = 0;
+            while(!done.get()) {
+              String term = TERMS[searches % TERMS.length];
+              long start = System.nanoTime();
+              index.search(new UserInputSearchExpression(term), IIndex.SEARCH_ARTIFACT, 0, 50);
+              result.latency(System.nanoTime() - start);
+              searches++ ;
+            }
+            result.searches[thread] = searches;
+          } catch(Exception ex) {
+            result.failures.add(ex);
+          } finally {
+            finished.countDown();
+          }
+        }
+      });
+    }
+    Thread updater = new Thread("update") { //$NON-NLS-1$
+      public void run() {
+        try {
+          while(!done.get()) {
+            indexManager.updateIndex(repository, true, new NullProgressMonitor());
+            result.updates++ ;
+          }
+        } catch(Exception ex) {
+          result.failures.add(ex);
+        }
+      }
+    };
+
+    long start = System.currentTimeMillis();
+    for(Thread thread : threads) {
+      thread.start();
+    }
+    if(update) {
+      updater.start();
+    }
+    Thread.sleep(DURATION);
+    done.set(true);
+    Assert.assertTrue(finished.await(60, TimeUnit.SECONDS));
+    if(update) {
+      updater.join(60 * 1000L);
+    }
+    result.elapsed = System.currentTimeMillis() - start;
+    return result;
+  }
+
+  private static class Result {
+    final int[] searches = new int[SEARCH_THREADS];
+
+    final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+
+    final AtomicLong maxLatency = new AtomicLong();
+
+    final AtomicInteger count = new AtomicInteger();
+
+    volatile int updates;
+
+    long elapsed;
+
+    void latency(long nanos) {
+      count.incrementAndGet();
+      long max;
+      while(nanos > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, nanos)) {
+        // retry
+      }
+    }
+
+    public String toString() {
+      return count.get() * 1000L / Math.max(1, elapsed) + " searches/s, max latency " //$NON-NLS-1$
+          + TimeUnit.NANOSECONDS.toMillis(maxLatency.get()) + " ms"; //$NON-NLS-1$
+    }
+  }
+}
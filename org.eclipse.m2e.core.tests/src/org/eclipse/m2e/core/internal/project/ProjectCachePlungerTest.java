@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.maven.project.MavenProject;
+
+
+/**
+ * Concurrent lookup, registration and removal of projects sharing cache entries. Each thread repeatedly looks up or
+ * creates an entry, registers its project, uses the entry and removes its project again, the way realm caches are used
+ * by concurrent registry refresh workers. No thread may ever get hold of an entry that has been flushed.
+ */
+@SuppressWarnings("synthetic-access")
+public class ProjectCachePlungerTest {
+
+  private static final int THREADS = 8;
+
+  private static final int ITERATIONS = 20000;
+
+  private static final int KEYS = 3;
+
+  private static class Entry {
+    volatile boolean flushed;
+  }
+
+  private static class Cache {
+    final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    final AtomicInteger flushes = new AtomicInteger();
+
+    final ProjectCachePlunger<String> plunger;
+
+    Cache(final boolean retainUnreferenced, final int maxRetained, final long retentionTimeout) {
+      plunger = new ProjectCachePlunger<String>(retainUnreferenced) {
+        protected void flush(String cacheKey) {
+          Entry entry = entries.remove(cacheKey);
+          if(entry != null) {
+            entry.flushed = true;
+            flushes.incrementAndGet();
+          }
+        }
+
+        protected int getMaxRetained() {
+          return maxRetained;
+        }
+
+        protected long getRetentionTimeout() {
+          return retentionTimeout;
+        }
+      };
+    }
+
+    // lookup and creation pin entries the same way the Eclipse realm caches do
+    Entry get(String key) {
+      synchronized(plunger) {
+        Entry entry = entries.get(key);
+        if(entry != null) {
+          plunger.pin(key);
+        }
+        return entry;
+      }
+    }
+
+    Entry put(String key) {
+      synchronized(plunger) {
+        Entry entry = new Entry();
+        Entry existing = entries.putIfAbsent(key, entry);
+        plunger.pin(key);
+        return existing != null ? existing : entry;
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentLookupAndRemoval() throws Exception {
+    assertNoFlushedEntryUsed(new Cache(false, 0, 0));
+  }
+
+  @Test
+  public void testConcurrentLookupAndRemovalRetainNone() throws Exception {
+    // unreferenced entries are retained and flushed right away because of the size limit
+    assertNoFlushedEntryUsed(new Cache(true, 0, TimeUnit.HOURS.toMillis(1)));
+  }
+
+  @Test
+  public void testConcurrentLookupAndRemovalRetentionExpired() throws Exception {
+    // unreferenced entries are retained and flushed as soon as they expire
+    assertNoFlushedEntryUsed(new Cache(true, KEYS, 0));
+  }
+
+  private void assertNoFlushedEntryUsed(final Cache cache) throws Exception {
+    final CyclicBarrier start = new CyclicBarrier(THREADS);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for(int t = 0; t < THREADS; t++ ) {
+        final MavenProject project = new MavenProject();
+        project.setFile(new File("project" + t, "pom.xml"));
+        futures.add(executor.submit(new Callable<Integer>() {
+          public Integer call() throws Exception {
+            start.await();
+            int failures = 0;
+            for(int i = 0; i < ITERATIONS; i++ ) {
+              String key = "key" + (i % KEYS);
+              Entry entry = cache.get(key);
+              if(entry == null) {
+                entry = cache.put(key);
+              }
+              Thread.yield();
+              cache.plunger.register(project, key);
+              if(entry.flushed) {
+                failures++ ;
+              }
+              cache.plunger.removeProject(project.getFile(), false);
+            }
+            return failures;
+          }
+        }));
+      }
+      int failures = 0;
+      for(Future<Integer> future : futures) {
+        failures += future.get(2, TimeUnit.MINUTES);
+      }
+      Assert.assertEquals("Flushed cache entries used", 0, failures);
+      Assert.assertTrue("No cache entry was flushed", cache.flushes.get() > 0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.embedder.ArtifactRef;
+import org.eclipse.m2e.core.embedder.ArtifactRepositoryRef;
+import org.eclipse.m2e.core.internal.IMavenConstants;
+import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.eclipse.m2e.core.project.ResolverConfiguration;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+
+
+/**
+ * Applying a registry refresh must only lock the changed projects, workspace jobs on other projects keep running.
+ */
+@SuppressWarnings("synthetic-access")
+public class ProjectRegistryApplyTest {
+
+  private IProject changed;
+
+  private IProject unrelated;
+
+  private File stateDir;
+
+  @Before
+  public void setUp() throws Exception {
+    IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+    changed = createProject(root.getProject("apply-changed")); //$NON-NLS-1$
+    unrelated = createProject(root.getProject("apply-unrelated")); //$NON-NLS-1$
+    stateDir = File.createTempFile("m2e-state", null); //$NON-NLS-1$
+    stateDir.delete();
+    stateDir.mkdirs();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    changed.delete(true, true, null);
+    unrelated.delete(true, true, null);
+    delete(stateDir);
+  }
+
+  @Test
+  public void testUnrelatedJobRunsDuringApply() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch applied = new CountDownLatch(1);
+    Job job = new Job("unrelated") { //$NON-NLS-1$
+      protected IStatus run(IProgressMonitor monitor) {
+        started.countDown();
+        try {
+          // holds the unrelated project until the registry is applied
+          applied.await(30, TimeUnit.SECONDS);
+        } catch(InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        return Status.OK_STATUS;
+      }
+    };
+    job.setRule(unrelated);
+    job.schedule();
+    Assert.assertTrue(started.await(30, TimeUnit.SECONDS));
+
+    ProjectRegistryManager manager = new ProjectRegistryManager(null, stateDir, false, null);
+    final List<MavenProjectChangedEvent> events = Collections
+        .synchronizedList(new ArrayList<MavenProjectChangedEvent>());
+    manager.addMavenProjectChangedListener(new IMavenProjectChangedBatchListener() {
+      public void mavenProjectChanged(MavenProjectChangedEvent[] batch, IProgressMonitor monitor) {
+        Collections.addAll(events, batch);
+      }
+    });
+
+    IFile pom = changed.getFile(IMavenConstants.POM_FILE_NAME);
+    MutableProjectRegistry newState = manager.newMutableProjectRegistry();
+    try {
+      newState.setProject(pom, newFacade(manager, pom));
+      manager.applyAndNotifyProjectChangeListeners(newState, new NullProgressMonitor());
+    } finally {
+      newState.close();
+    }
+
+    // workspace lock would have waited for the unrelated job to time out
+    Assert.assertEquals(Job.RUNNING, job.getState());
+    applied.countDown();
+    job.join();
+
+    Assert.assertEquals(1, events.size());
+    Assert.assertEquals(pom, events.get(0).getSource());
+    Assert.assertNotNull(manager.getProject(changed));
+  }
+
+  private static IProject createProject(IProject project) throws CoreException {
+    if(!project.exists()) {
+      project.create(null);
+    }
+    project.open(null);
+    return project;
+  }
+
+  private static MavenProjectFacade newFacade(ProjectRegistryManager manager, IFile pom) {
+    ArtifactKey key = new ArtifactKey("test", pom.getProject().getName(), "1.0", null); //$NON-NLS-1$ //$NON-NLS-2$
+    return new MavenProjectFacade(manager, pom, pom.getLocation().toFile(), new ResolverConfiguration(), new long[0],
+        key, Collections.<String> emptyList(), "jar", //$NON-NLS-1$
+        new IPath[0], new IPath[0], new IPath[0], new IPath[0], null, null,
+        Collections.<ArtifactRepositoryRef> emptySet(), Collections.<ArtifactRepositoryRef> emptySet(),
+        Collections.<ArtifactRef> emptySet(), null,
+        Collections.<MojoExecutionKey, List<IPluginExecutionMetadata>> emptyMap());
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] children = file.listFiles();
+    if(children != null) {
+      for(File child : children) {
+        delete(child);
+      }
+    }
+    if(file.exists() && !file.delete()) {
+      throw new IOException("Could not delete " + file); //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.embedder.ArtifactRef;
+import org.eclipse.m2e.core.embedder.ArtifactRepositoryRef;
+import org.eclipse.m2e.core.embedder.ICallable;
+import org.eclipse.m2e.core.embedder.IMavenExecutionContext;
+import org.eclipse.m2e.core.internal.IMavenConstants;
+import org.eclipse.m2e.core.internal.project.DependencyResolutionContext;
+import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.ResolverConfiguration;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+
+
+/**
+ * Poms resolved concurrently during registry refresh must not depend on each other, also on first import when no
+ * dependencies were resolved before. Batches must be applied in the order of serial refresh, so registry state and
+ * project change events do not depend on the refresh parallelism.
+ */
+@SuppressWarnings("synthetic-access")
+public class ProjectRegistryBatchTest {
+
+  private static final String GROUP_ID = "test"; //$NON-NLS-1$
+
+  private static final String VERSION = "1.0"; //$NON-NLS-1$
+
+  private File stateDir;
+
+  private ProjectRegistryManager manager;
+
+  private MutableProjectRegistry newState;
+
+  private final Map<MavenProjectFacade, MavenProject> mavenProjects = new HashMap<MavenProjectFacade, MavenProject>();
+
+  @Before
+  public void setUp() throws Exception {
+    stateDir = File.createTempFile("m2e-state", null); //$NON-NLS-1$
+    stateDir.delete();
+    stateDir.mkdirs();
+    manager = new ProjectRegistryManager(null, stateDir, false, null);
+    newState = manager.newMutableProjectRegistry();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    newState.close();
+    delete(stateDir);
+  }
+
+  @Test
+  public void testFirstImportDoesNotBatchDependents() throws Exception {
+    IFile a = addProject("batch-a"); //$NON-NLS-1$
+    IFile b = addProject("batch-b", "batch-a"); //$NON-NLS-1$ //$NON-NLS-2$
+    IFile c = addProject("batch-c"); //$NON-NLS-1$
+
+    List<List<IFile>> batches = getBatches(Arrays.asList(a, b, c), 3);
+
+    Assert.assertEquals(Arrays.asList(Arrays.asList(a), Arrays.asList(b, c)), batches);
+  }
+
+  @Test
+  public void testTransitiveDependentsAreNotBatched() throws Exception {
+    IFile a = addProject("batch-a"); //$NON-NLS-1$
+    addProject("batch-b", "batch-a"); //$NON-NLS-1$ //$NON-NLS-2$
+    IFile c = addProject("batch-c", "batch-b"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    // b is not refreshed, c still depends on a through it
+    List<List<IFile>> batches = getBatches(Arrays.asList(c, a), 3);
+
+    Assert.assertEquals(Arrays.asList(Arrays.asList(c), Arrays.asList(a)), batches);
+  }
+
+  @Test
+  public void testBatchesFollowSerialOrder() throws Exception {
+    IFile a = addProject("batch-a"); //$NON-NLS-1$
+    IFile b = addProject("batch-b", "batch-a"); //$NON-NLS-1$ //$NON-NLS-2$
+    IFile c = addProject("batch-c"); //$NON-NLS-1$
+    IFile d = addProject("batch-d", "batch-c"); //$NON-NLS-1$ //$NON-NLS-2$
+    IFile e = addProject("batch-e"); //$NON-NLS-1$
+    List<IFile> poms = Arrays.asList(a, c, b, e, d);
+
+    List<List<IFile>> serial = getBatches(poms, 1);
+    List<List<IFile>> parallel = getBatches(poms, 4);
+
+    Assert.assertEquals(poms, flatten(serial));
+    Assert.assertEquals(flatten(serial), flatten(parallel));
+    Assert.assertEquals(parallel, getBatches(poms, 4));
+    for(List<IFile> batch : parallel) {
+      Assert.assertFalse(batch.toString(), batch.containsAll(Arrays.asList(a, b)));
+      Assert.assertFalse(batch.toString(), batch.containsAll(Arrays.asList(c, d)));
+    }
+  }
+
+  private IFile addProject(String artifactId, String... dependencies) {
+    IFile pom = ResourcesPlugin.getWorkspace().getRoot().getProject(artifactId)
+        .getFile(IMavenConstants.POM_FILE_NAME);
+    ArtifactKey key = new ArtifactKey(GROUP_ID, artifactId, VERSION, null);
+
+    Model model = new Model();
+    model.setGroupId(GROUP_ID);
+    model.setArtifactId(artifactId);
+    model.setVersion(VERSION);
+    for(String dependencyId : dependencies) {
+      Dependency dependency = new Dependency();
+      dependency.setGroupId(GROUP_ID);
+      dependency.setArtifactId(dependencyId);
+      dependency.setVersion(VERSION);
+      model.addDependency(dependency);
+    }
+
+    MavenProjectFacade facade = new MavenProjectFacade(manager, pom, new File(artifactId,
+        IMavenConstants.POM_FILE_NAME), new ResolverConfiguration(), new long[0], key,
+        Collections.<String> emptyList(), "jar", //$NON-NLS-1$
+        new IPath[0], new IPath[0], new IPath[0], new IPath[0], null, null,
+        Collections.<ArtifactRepositoryRef> emptySet(), Collections.<ArtifactRepositoryRef> emptySet(),
+        Collections.<ArtifactRef> emptySet(), null,
+        Collections.<MojoExecutionKey, List<IPluginExecutionMetadata>> emptyMap());
+    mavenProjects.put(facade, new MavenProject(model));
+
+    // state after the first refresh phase, only project structure is known
+    newState.setProject(pom, facade);
+    Set<Capability> capabilities = new LinkedHashSet<Capability>();
+    capabilities.add(MavenCapability.createMavenParent(key));
+    capabilities.add(MavenCapability.createMavenArtifact(key));
+    newState.setCapabilities(pom, capabilities);
+    return pom;
+  }
+
+  private List<List<IFile>> getBatches(final List<IFile> poms, final int maxSize) throws CoreException {
+    return MavenPlugin.getMaven().execute(new ICallable<List<List<IFile>>>() {
+      public List<List<IFile>> call(IMavenExecutionContext context, IProgressMonitor monitor) {
+        for(Map.Entry<MavenProjectFacade, MavenProject> entry : mavenProjects.entrySet()) {
+          manager.putMavenProject(entry.getKey(), entry.getValue());
+        }
+        DependencyResolutionContext resolutionContext = new DependencyResolutionContext(poms);
+        Set<IFile> processed = new HashSet<IFile>();
+        Map<IFile, Set<RequiredCapability>> declaredRequirements = new HashMap<IFile, Set<RequiredCapability>>();
+        List<List<IFile>> batches = new ArrayList<List<IFile>>();
+        while(!resolutionContext.isEmpty()) {
+          batches.add(manager.nextIndependentBatch(newState, resolutionContext, processed,
+              Collections.<IFile, Set<RequiredCapability>> emptyMap(), declaredRequirements, maxSize));
+        }
+        return batches;
+      }
+    }, new NullProgressMonitor());
+  }
+
+  private static List<IFile> flatten(List<List<IFile>> batches) {
+    List<IFile> result = new ArrayList<IFile>();
+    for(List<IFile> batch : batches) {
+      result.addAll(batch);
+    }
+    return result;
+  }
+
+  private static void delete(File file) throws IOException {
+    File[] children = file.listFiles();
+    if(children != null) {
+      for(File child : children) {
+        delete(child);
+      }
+    }
+    if(file.exists() && !file.delete()) {
+      throw new IOException("Could not delete " + file); //$NON-NLS-1$
+    }
+  }
+}
@@ -30,7 +30,9 @@ import org.eclipse.ui.preferences.ScopedPreferenceStore;
 
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.internal.IMavenConstants;
+import org.eclipse.m2e.core.internal.index.IIndex;
 import org.eclipse.m2e.core.internal.index.filter.FilteredIndex;
+import org.eclipse.m2e.core.internal.index.nexus.CompositeIndex;
 import org.eclipse.m2e.core.internal.lifecyclemapping.discovery.IMavenDiscovery;
 import org.eclipse.m2e.core.ui.internal.console.MavenConsoleImpl;
 import org.eclipse.m2e.core.ui.internal.project.MavenUpdateConfigurationChangeListener;
@@ -123,7 +125,12 @@ public class M2EUIPluginActivator extends AbstractUIPlugin {
   }
 
   public SearchEngine getSearchEngine(IProject project) throws CoreException {
-    return new IndexSearchEngine(new FilteredIndex(project, MavenPlugin.getIndexManager().getIndex(project)));
+    IIndex index = MavenPlugin.getIndexManager().getIndex(project);
+    if(index instanceof CompositeIndex) {
+      // content assist must not wait for slow indexes
+      index = ((CompositeIndex) index).withTimeout(CompositeIndex.INTERACTIVE_SEARCH_TIMEOUT);
+    }
+    return new IndexSearchEngine(new FilteredIndex(project, index));
   }
 
   @SuppressWarnings({"rawtypes", "unchecked"})
@@ -27,6 +27,7 @@ import org.eclipse.swt.graphics.Image;
 
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
@@ -75,7 +76,7 @@ public class MavenVersionDecorator implements ILabelDecorator {
   }
 
   public void addListener(final ILabelProviderListener listener) {
-    IMavenProjectChangedListener projectChangeListener = new IMavenProjectChangedListener() {
+    IMavenProjectChangedListener projectChangeListener = new IMavenProjectChangedBatchListener() {
       public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
         ArrayList<IResource> pomList = new ArrayList<IResource>();
         for(int i = 0; i < events.length; i++ ) {
@@ -357,6 +357,8 @@ public class Messages extends NLS {
 
   public static String MavenPomSelectionComponent_toomany;
 
+  public static String MavenPomSelectionComponent_truncated;
+
   public static String MavenPomSelectionComponent_UnavailableRemoteRepositoriesIndexes;
 
   public static String MavenPomWizard_error_exists;
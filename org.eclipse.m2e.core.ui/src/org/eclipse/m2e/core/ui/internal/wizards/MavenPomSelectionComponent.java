@@ -72,10 +72,12 @@ import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.index.IIndex;
 import org.eclipse.m2e.core.internal.index.IndexManager;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
 import org.eclipse.m2e.core.internal.index.IndexedArtifact;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.index.UserInputSearchExpression;
 import org.eclipse.m2e.core.internal.index.filter.ArtifactFilterManager;
+import org.eclipse.m2e.core.internal.index.nexus.CompositeIndex;
 import org.eclipse.m2e.core.ui.internal.M2EUIPluginActivator;
 import org.eclipse.m2e.core.ui.internal.MavenImages;
 import org.eclipse.m2e.core.ui.internal.Messages;
@@ -136,6 +138,11 @@ public class MavenPomSelectionComponent extends Composite {
 
   private static final long LONG_DELAY = 500L;
 
+  /**
+   * Maximum number of most relevant artifact files each index contributes to search results.
+   */
+  private static final int MAX_RESULTS = 1000;
+
   final HashSet<String> artifactKeys = new HashSet<String>();
 
   final HashSet<String> managedKeys = new HashSet<String>();
@@ -465,8 +472,14 @@ public class MavenPomSelectionComponent extends Composite {
           setResult(IStatus.OK, NLS.bind(Messages.MavenPomSelectionComponent_searching, activeQuery.toLowerCase()),
               null);
 
-          Map<String, IndexedArtifact> res = indexManager.getAllIndexes().search(
-              new UserInputSearchExpression(activeQuery), field, classifier);
+          IIndex index = indexManager.getAllIndexes();
+          if(index instanceof CompositeIndex) {
+            // do not keep the user waiting for slow indexes
+            index = ((CompositeIndex) index).withTimeout(CompositeIndex.INTERACTIVE_SEARCH_TIMEOUT);
+          }
+          IndexSearchResult result = index.search(new UserInputSearchExpression(activeQuery), field, classifier,
+              MAX_RESULTS);
+          Map<String, IndexedArtifact> res = result.getArtifacts();
 
           //335139 have the managed entries always come up as first results
           LinkedHashMap<String, IndexedArtifact> managed = new LinkedHashMap<String, IndexedArtifact>();
@@ -480,7 +493,13 @@ public class MavenPomSelectionComponent extends Composite {
             }
           }
           managed.putAll(nonManaged);
-          setResult(IStatus.OK, NLS.bind(Messages.MavenPomSelectionComponent_results, activeQuery, res.size()), managed);
+          if(result.isTruncated()) {
+            setResult(IStatus.WARNING,
+                NLS.bind(Messages.MavenPomSelectionComponent_truncated, activeQuery, res.size()), managed);
+          } else {
+            setResult(IStatus.OK, NLS.bind(Messages.MavenPomSelectionComponent_results, activeQuery, res.size()),
+                managed);
+          }
         } catch(BooleanQuery.TooManyClauses ex) {
           setResult(IStatus.ERROR, Messages.MavenPomSelectionComponent_toomany,
               Collections.<String, IndexedArtifact> emptyMap());
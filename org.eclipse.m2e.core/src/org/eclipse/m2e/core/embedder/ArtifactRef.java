@@ -33,6 +33,14 @@ public class ArtifactRef implements Serializable {
     this.scope = artifact.getScope();
   }
 
+  /**
+   * @since 1.7
+   */
+  public ArtifactRef(ArtifactKey artifactKey, String scope) {
+    this.artifactKey = artifactKey;
+    this.scope = scope;
+  }
+
   public ArtifactKey getArtifactKey() {
     return artifactKey;
   }
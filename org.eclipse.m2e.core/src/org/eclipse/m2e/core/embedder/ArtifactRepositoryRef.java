@@ -32,6 +32,15 @@ public class ArtifactRepositoryRef implements Serializable {
     this.username = repository.getAuthentication() != null ? repository.getAuthentication().getUsername() : null;
   }
 
+  /**
+   * @since 1.7
+   */
+  public ArtifactRepositoryRef(String id, String url, String username) {
+    this.id = id;
+    this.url = url;
+    this.username = username;
+  }
+
   public String getId() {
     return id;
   }
@@ -117,4 +117,50 @@ public interface IMavenConfiguration {
    * @since 1.7
    */
   public String getOverridingManagedVersionExecutionSeverity();
+
+  /**
+   * Returns maximum number of workspace projects that can be resolved concurrently during project registry refresh.
+   * 
+   * @return number of concurrently resolved projects, values less than <code>2</code> mean sequential resolution.
+   * @since 1.7
+   */
+  public int getRefreshParallelism();
+
+  /**
+   * Returns eviction policy of the MavenProject cache, changes take effect immediately.
+   * 
+   * @return One of <code>size</code>, <code>weight</code> or <code>soft</code>.
+   * @since 1.7
+   */
+  public String getProjectCachePolicy();
+
+  /**
+   * Returns maximum number of cached MavenProject instances when using <code>size</code> project cache policy.
+   * 
+   * @since 1.7
+   */
+  public int getProjectCacheSize();
+
+  /**
+   * Returns maximum total weight of cached MavenProject instances when using <code>weight</code> project cache policy.
+   * Each project weighs one unit plus one unit per resolved artifact, dependency and build plugin.
+   * 
+   * @since 1.7
+   */
+  public long getProjectCacheWeight();
+
+  /**
+   * Returns maximum number of plugin and extension class realms kept for reuse after no project uses them anymore.
+   * 
+   * @since 1.7
+   */
+  public int getRealmCacheSize();
+
+  /**
+   * Returns number of seconds plugin and extension class realms are kept for reuse after no project uses them anymore.
+   * Expired realms are disposed the next time a project is refreshed or removed, not as soon as they expire.
+   * 
+   * @since 1.7
+   */
+  public int getRealmCacheTimeout();
 }
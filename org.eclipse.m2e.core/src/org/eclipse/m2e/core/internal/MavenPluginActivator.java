@@ -124,6 +124,8 @@ public class MavenPluginActivator extends Plugin {
 
   private ArtifactFilterManager artifactFilterManager;
 
+  private WorkspaceStateWriter workspaceStateWriter;
+
   private String version = "0.0.0"; //$NON-NLS-1$
 
   private String qualifiedVersion = "0.0.0.qualifier"; //$NON-NLS-1$
@@ -209,6 +211,7 @@ public class MavenPluginActivator extends Plugin {
     // TODO eagerly reads workspace state cache
     this.managerImpl = new ProjectRegistryManager(maven, stateLocationDir, !updateProjectsOnStartup /* readState */,
         mavenMarkerManager);
+    mavenConfiguration.addConfigurationChangeListener(managerImpl);
 
     this.mavenBackgroundJob = new ProjectRegistryRefreshJob(managerImpl, mavenConfiguration);
 
@@ -217,7 +220,8 @@ public class MavenPluginActivator extends Plugin {
         | IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.PRE_DELETE);
 
     this.projectManager = new MavenProjectManager(managerImpl, mavenBackgroundJob, stateLocationDir);
-    this.projectManager.addMavenProjectChangedListener(new WorkspaceStateWriter(projectManager));
+    this.workspaceStateWriter = new WorkspaceStateWriter(projectManager);
+    this.projectManager.addMavenProjectChangedListener(workspaceStateWriter);
     if(updateProjectsOnStartup || managerImpl.getProjects().length == 0) {
       this.projectManager.refresh(new MavenUpdateRequest(workspace.getRoot().getProjects(), //
           mavenConfiguration.isOffline() /*offline*/, false /* updateSnapshots */));
@@ -308,7 +312,11 @@ public class MavenPluginActivator extends Plugin {
 
     this.projectManager.removeMavenProjectChangedListener(this.configurationManager);
     this.projectManager.removeMavenProjectChangedListener(indexManager);
+    this.indexManager.writeChecksumCache();
     this.projectManager.removeMavenProjectChangedListener(repositoryRegistry);
+    this.projectManager.removeMavenProjectChangedListener(workspaceStateWriter);
+    this.workspaceStateWriter.flush();
+    this.workspaceStateWriter = null;
     this.projectManager = null;
 
     this.archetyperContainer.dispose();
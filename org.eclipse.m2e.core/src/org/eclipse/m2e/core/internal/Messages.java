@@ -236,6 +236,8 @@ public class Messages extends NLS {
 
   public static String ProjectRegistryManager_task_refreshing;
 
+  public static String ProjectRegistryManager_task_saving;
+
   public static String ProjectRegistryRefreshJob_task_refreshing;
 
   public static String ProjectRegistryRefreshJob_title;
@@ -12,6 +12,7 @@
 package org.eclipse.m2e.core.internal.embedder;
 
 import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryCache;
 import org.eclipse.aether.SessionData;
 import org.eclipse.aether.transfer.TransferListener;
 
@@ -50,6 +51,16 @@ class FilterRepositorySystemSession extends org.eclipse.aether.AbstractForwardin
     return origSessionData;
   }
 
+  /**
+   * @since 1.7
+   */
+  public RepositoryCache setCache(RepositoryCache cache) {
+    DefaultRepositorySystemSession session = getSession();
+    RepositoryCache origCache = session.getCache();
+    session.setCache(cache);
+    return origCache;
+  }
+
   protected DefaultRepositorySystemSession getSession() {
     return this.session;
   }
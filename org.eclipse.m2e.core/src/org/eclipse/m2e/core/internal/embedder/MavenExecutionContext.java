@@ -59,13 +59,39 @@ public class MavenExecutionContext implements IMavenExecutionContext {
 
   private final MavenImpl maven;
 
+  /**
+   * Context executing on another thread this context was created from, see {@link #newWorkerContext()}.
+   */
+  private final MavenExecutionContext origin;
+
   private MavenExecutionRequest request;
 
   // TODO maybe delegate to parent context
   private Map<String, Object> context;
 
   public MavenExecutionContext(MavenImpl maven) {
+    this(maven, null);
+  }
+
+  private MavenExecutionContext(MavenImpl maven, MavenExecutionContext origin) {
     this.maven = maven;
+    this.origin = origin;
+  }
+
+  /**
+   * Creates new context to be executed on another thread while this context is executing. The new context uses a copy
+   * of this context's execution request and shares repository session data and cache with this context, so
+   * session-scoped state, like cache entries already force-updated during this session, is visible to both contexts.
+   * 
+   * @since 1.7
+   */
+  public MavenExecutionContext newWorkerContext() {
+    if(request == null || context == null) {
+      throw new IllegalStateException();
+    }
+    MavenExecutionContext worker = new MavenExecutionContext(maven, this);
+    worker.request = DefaultMavenExecutionRequest.copy(request);
+    return worker;
   }
 
   public MavenExecutionRequest getExecutionRequest() throws CoreException {
@@ -131,6 +157,9 @@ public class MavenExecutionContext implements IMavenExecutionContext {
       setValue(CTX_REPOSITORYSESSION, repositorySession);
       if(parent != null) {
         repositorySession.setData(parent.getRepositorySession().getData());
+      } else if(origin != null) {
+        repositorySession.setData(origin.getRepositorySession().getData());
+        repositorySession.setCache(origin.getRepositorySession().getCache());
       }
       final MavenExecutionResult result = new DefaultMavenExecutionResult();
       setValue(CTX_MAVENSESSION, new MavenSession(maven.getPlexusContainer(), repositorySession, request, result));
@@ -220,7 +249,9 @@ public class MavenExecutionContext implements IMavenExecutionContext {
     // temporary solution for https://issues.sonatype.org/browse/MNGECLIPSE-1607
     // oddly, there are no unit tests that fail if this is commented out
     Properties systemProperties = new Properties();
+    // environment variables are read once per process by EnvironmentUtils
     EnvironmentUtils.addEnvVars(systemProperties);
+    // system properties change at runtime, i.e. proxy settings, always copy current values
     copyProperties(systemProperties, System.getProperties());
     request.setSystemProperties(systemProperties);
   }
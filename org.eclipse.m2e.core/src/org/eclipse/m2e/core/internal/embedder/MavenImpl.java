@@ -52,7 +52,6 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.osgi.util.NLS;
 
@@ -135,7 +134,6 @@ import org.apache.maven.project.ProjectBuildingException;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.project.ProjectBuildingResult;
 import org.apache.maven.project.ProjectSorter;
-import org.apache.maven.properties.internal.EnvironmentUtils;
 import org.apache.maven.repository.RepositorySystem;
 import org.apache.maven.settings.Mirror;
 import org.apache.maven.settings.Proxy;
@@ -190,15 +188,32 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
   private final ArrayList<ILocalRepositoryListener> localRepositoryListeners = new ArrayList<ILocalRepositoryListener>();
 
   /**
-   * Cached parsed settings.xml instance
+   * Minimum milliseconds between checks of settings files for changes.
    */
-  private Settings settings;
+  private static final long SETTINGS_CHECK_INTERVAL = 1000L;
 
-  /** File length of cached user settings */
-  private long settings_length;
+  /**
+   * Cached parsed settings.xml instance, replaced as a whole on reload and shared read-only by all callers.
+   */
+  private volatile SettingsSnapshot settings;
+
+  private static class SettingsSnapshot {
+    final Settings settings;
+
+    /**
+     * Path, length and last modification time of the global and user settings files the settings were read from.
+     */
+    final String fingerprint;
 
-  /** Last modified timestamp of cached user settings */
-  private long settings_timestamp;
+    /** When the settings files were last found unchanged */
+    volatile long checked;
+
+    SettingsSnapshot(Settings settings, String fingerprint) {
+      this.settings = settings;
+      this.fingerprint = fingerprint;
+      this.checked = System.currentTimeMillis();
+    }
+  }
 
   public MavenImpl(IMavenConfiguration mavenConfiguration) {
     this.mavenConfiguration = mavenConfiguration;
@@ -223,14 +238,8 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     // need to think how to manage ${maven.build.timestamp} properly inside workspace
     //request.setStartTime( new Date() );
 
-    if(mavenConfiguration.getGlobalSettingsFile() != null) {
-      request.setGlobalSettingsFile(new File(mavenConfiguration.getGlobalSettingsFile()));
-    }
-    File userSettingsFile = SettingsXmlConfigurationProcessor.DEFAULT_USER_SETTINGS_FILE;
-    if(mavenConfiguration.getUserSettingsFile() != null) {
-      userSettingsFile = new File(mavenConfiguration.getUserSettingsFile());
-    }
-    request.setUserSettingsFile(userSettingsFile);
+    request.setGlobalSettingsFile(getGlobalSettingsFile());
+    request.setUserSettingsFile(getUserSettingsFile());
 
     try {
       lookup(MavenExecutionRequestPopulator.class).populateFromSettings(request, getSettings());
@@ -247,8 +256,7 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     request.getUserProperties().put("m2e.version", MavenPluginActivator.getVersion()); //$NON-NLS-1$
     request.getUserProperties().put(ConfigurationProperties.USER_AGENT, MavenPluginActivator.getUserAgent());
 
-    EnvironmentUtils.addEnvVars(request.getSystemProperties());
-    copyProperties(request.getSystemProperties(), System.getProperties());
+    MavenExecutionContext.populateSystemProperties(request);
 
     request.setCacheNotFound(true);
     request.setCacheTransferError(true);
@@ -439,51 +447,84 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     return getSettings(false);
   }
 
-  public synchronized Settings getSettings(final boolean force_reload) throws CoreException {
+  public Settings getSettings(final boolean force_reload) throws CoreException {
     // MUST NOT use createRequest!
 
-    File userSettingsFile = SettingsXmlConfigurationProcessor.DEFAULT_USER_SETTINGS_FILE;
-    if(mavenConfiguration.getUserSettingsFile() != null) {
-      userSettingsFile = new File(mavenConfiguration.getUserSettingsFile());
+    SettingsSnapshot snapshot = settings;
+    if(!force_reload && snapshot != null) {
+      long now = System.currentTimeMillis();
+      if(now - snapshot.checked < SETTINGS_CHECK_INTERVAL) {
+        return snapshot.settings;
+      }
+      if(snapshot.fingerprint.equals(getSettingsFingerprint(getGlobalSettingsFile(), getUserSettingsFile()))) {
+        snapshot.checked = now;
+        return snapshot.settings;
+      }
     }
+    return loadSettings(force_reload);
+  }
 
-    boolean reload = force_reload || settings == null;
+  private synchronized Settings loadSettings(boolean force_reload) throws CoreException {
+    File globalSettingsFile = getGlobalSettingsFile();
+    File userSettingsFile = getUserSettingsFile();
+    // fingerprint before reading, changes made while reading are picked up by the next check
+    String fingerprint = getSettingsFingerprint(globalSettingsFile, userSettingsFile);
 
-    if(!reload && userSettingsFile != null) {
-      reload = userSettingsFile.lastModified() != settings_timestamp || userSettingsFile.length() != settings_length;
+    SettingsSnapshot snapshot = settings;
+    if(!force_reload && snapshot != null && snapshot.fingerprint.equals(fingerprint)) {
+      // reloaded by another thread meanwhile
+      return snapshot.settings;
     }
 
-    if(reload) {
-      // TODO: Can't that delegate to buildSettings()?
-      SettingsBuildingRequest request = new DefaultSettingsBuildingRequest();
-      // 440696 guard against ConcurrentModificationException
-      Properties systemProperties = new Properties();
-      copyProperties(systemProperties, System.getProperties());
-      request.setSystemProperties(systemProperties);
-      if(mavenConfiguration.getGlobalSettingsFile() != null) {
-        request.setGlobalSettingsFile(new File(mavenConfiguration.getGlobalSettingsFile()));
-      }
-      if(userSettingsFile != null) {
-        request.setUserSettingsFile(userSettingsFile);
-      }
-      try {
-        settings = lookup(SettingsBuilder.class).build(request).getEffectiveSettings();
-      } catch(SettingsBuildingException ex) {
-        String msg = "Could not read settings.xml, assuming default values";
-        log.error(msg, ex);
-        /*
-         * NOTE: This method provides input for various other core functions, just bailing out would make m2e highly
-         * unusuable. Instead, we fail gracefully and just ignore the broken settings, using defaults.
-         */
-        settings = new Settings();
-      }
+    // TODO: Can't that delegate to buildSettings()?
+    SettingsBuildingRequest request = new DefaultSettingsBuildingRequest();
+    // 440696 guard against ConcurrentModificationException
+    Properties systemProperties = new Properties();
+    copyProperties(systemProperties, System.getProperties());
+    request.setSystemProperties(systemProperties);
+    if(globalSettingsFile != null) {
+      request.setGlobalSettingsFile(globalSettingsFile);
+    }
+    if(userSettingsFile != null) {
+      request.setUserSettingsFile(userSettingsFile);
+    }
+    Settings result;
+    try {
+      result = lookup(SettingsBuilder.class).build(request).getEffectiveSettings();
+    } catch(SettingsBuildingException ex) {
+      String msg = "Could not read settings.xml, assuming default values";
+      log.error(msg, ex);
+      /*
+       * NOTE: This method provides input for various other core functions, just bailing out would make m2e highly
+       * unusuable. Instead, we fail gracefully and just ignore the broken settings, using defaults.
+       */
+      result = new Settings();
+    }
+
+    settings = new SettingsSnapshot(result, fingerprint);
+    return result;
+  }
+
+  private File getGlobalSettingsFile() {
+    return mavenConfiguration.getGlobalSettingsFile() != null ? new File(mavenConfiguration.getGlobalSettingsFile())
+        : null;
+  }
+
+  private File getUserSettingsFile() {
+    return mavenConfiguration.getUserSettingsFile() != null ? new File(mavenConfiguration.getUserSettingsFile())
+        : SettingsXmlConfigurationProcessor.DEFAULT_USER_SETTINGS_FILE;
+  }
 
-      if(userSettingsFile != null) {
-        settings_length = userSettingsFile.length();
-        settings_timestamp = userSettingsFile.lastModified();
+  private static String getSettingsFingerprint(File globalSettingsFile, File userSettingsFile) {
+    StringBuilder fingerprint = new StringBuilder();
+    for(File file : new File[] {globalSettingsFile, userSettingsFile}) {
+      if(file != null) {
+        fingerprint.append(file.getAbsolutePath()).append(':').append(file.length()).append(':')
+            .append(file.lastModified());
       }
+      fingerprint.append('|');
     }
-    return settings;
+    return fingerprint.toString();
   }
 
   public Settings buildSettings(String globalSettings, String userSettings) throws CoreException {
@@ -1157,9 +1198,7 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
   }
 
   public Mirror getMirror(ArtifactRepository repo) throws CoreException {
-    MavenExecutionRequest request = createExecutionRequest(new NullProgressMonitor());
-    populateDefaults(request);
-    return lookup(RepositorySystem.class).getMirror(repo, request.getMirrors());
+    return lookup(RepositorySystem.class).getMirror(repo, getMirrors());
   };
 
   public void populateDefaults(MavenExecutionRequest request) throws CoreException {
@@ -1172,9 +1211,8 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
   }
 
   public List<Mirror> getMirrors() throws CoreException {
-    MavenExecutionRequest request = createExecutionRequest(null);
-    populateDefaults(request);
-    return request.getMirrors();
+    // same as the mirrors of a populated execution request, without populating one
+    return new ArrayList<Mirror>(getSettings().getMirrors());
   }
 
   public void addSettingsChangeListener(ISettingsChangeListener listener) {
@@ -13,6 +13,7 @@ package org.eclipse.m2e.core.internal.index;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
@@ -85,6 +86,14 @@ public interface IIndex {
 
   public IndexedArtifactFile identify(File file) throws CoreException;
 
+  /**
+   * Identifies multiple files at once, checksums of the files are calculated in parallel.
+   * 
+   * @return map of identified files to their index entries, files that were not found in the index are not included
+   * @since 1.7
+   */
+  public Map<File, IndexedArtifactFile> identify(List<File> files) throws CoreException;
+
   /**
    * Performs a search for artifacts with given parameters.
    * 
@@ -131,4 +140,15 @@ public interface IIndex {
    */
   public Map<String, IndexedArtifact> search(SearchExpression expression, String searchType, int classifier)
       throws CoreException;
+
+  /**
+   * Same as {@link #search(SearchExpression, String, int)}, but each index only contributes up to
+   * <code>maxResults</code> matching artifact files with the highest relevance.
+   * 
+   * @param maxResults - maximum number of artifact files per index, non-positive values mean no limit
+   * @return matching artifacts, and whether some index matched more than <code>maxResults</code> artifact files
+   * @since 1.7
+   */
+  public IndexSearchResult search(SearchExpression expression, String searchType, int classifier, int maxResults)
+      throws CoreException;
 }
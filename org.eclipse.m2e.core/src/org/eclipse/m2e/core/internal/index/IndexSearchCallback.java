@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+/**
+ * Receives index search hits as they are read from the index, in the order of decreasing relevance.
+ *
+ * @since 1.7
+ */
+public interface IndexSearchCallback {
+
+  /**
+   * @param artifactFile matching artifact file
+   * @param score relevance of the match as calculated by the index
+   * @return <code>false</code> to stop the search, <code>true</code> to receive more hits
+   */
+  public boolean accept(IndexedArtifactFile artifactFile, float score);
+
+}
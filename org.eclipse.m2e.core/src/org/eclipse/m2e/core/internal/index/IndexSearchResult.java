@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.util.Map;
+
+
+/**
+ * Result of a search that limits the number of artifact files each index contributes.
+ *
+ * @since 1.7
+ */
+public class IndexSearchResult {
+
+  private final Map<String, IndexedArtifact> artifacts;
+
+  private final boolean truncated;
+
+  public IndexSearchResult(Map<String, IndexedArtifact> artifacts, boolean truncated) {
+    this.artifacts = artifacts;
+    this.truncated = truncated;
+  }
+
+  /**
+   * Matching artifacts keyed like the results of {@link IIndex#search(SearchExpression, String, int)}.
+   */
+  public Map<String, IndexedArtifact> getArtifacts() {
+    return artifacts;
+  }
+
+  /**
+   * Whether some index matched more artifact files than the limit, the less relevant of which are not part of the
+   * result.
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+}
@@ -15,6 +15,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IProject;
@@ -23,6 +24,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.index.IIndex;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
 import org.eclipse.m2e.core.internal.index.IndexedArtifact;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.index.SearchExpression;
@@ -52,6 +54,10 @@ public class FilteredIndex implements IIndex {
     return index.identify(file);
   }
 
+  public Map<File, IndexedArtifactFile> identify(List<File> files) throws CoreException {
+    return index.identify(files);
+  }
+
   public Collection<IndexedArtifact> find(SearchExpression groupId, SearchExpression artifactId,
       SearchExpression version, SearchExpression packaging) throws CoreException {
     return filter(index.find(groupId, artifactId, version, packaging));
@@ -72,6 +78,12 @@ public class FilteredIndex implements IIndex {
     return filter(index.search(expression, searchType, classifier));
   }
 
+  public IndexSearchResult search(SearchExpression expression, String searchType, int classifier, int maxResults)
+      throws CoreException {
+    IndexSearchResult result = index.search(expression, searchType, classifier, maxResults);
+    return new IndexSearchResult(filter(result.getArtifacts()), result.isTruncated());
+  }
+
   // filter methods
 
   protected Collection<IndexedArtifact> filter(Collection<IndexedArtifact> indexedArtifacts) {
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+
+/**
+ * Cache of SHA-1 checksums of artifact files, keyed by file path, size and last modification time. Checksums of files
+ * in the local repository are read from their <code>.sha1</code> files when present, other checksums are calculated
+ * from file contents. The cache is persisted between sessions.
+ *
+ * @since 1.7
+ */
+class ChecksumCache {
+  private static final Logger log = LoggerFactory.getLogger(ChecksumCache.class);
+
+  private static final int MAX_ENTRIES = 10000;
+
+  private static final int THREADS = 4;
+
+  private static final Pattern SHA1 = Pattern.compile("[0-9a-f]{40}"); //$NON-NLS-1$
+
+  private final File cacheFile;
+
+  private final File localRepository;
+
+  /**
+   * Maps canonical file path to checksum entry, in the least recently used order.
+   */
+  private Map<String, Entry> entries;
+
+  private boolean dirty;
+
+  ChecksumCache(File cacheFile, File localRepository) {
+    this.cacheFile = cacheFile;
+    this.localRepository = localRepository;
+  }
+
+  private static class Entry {
+    final long size;
+
+    final long lastModified;
+
+    final String sha1;
+
+    Entry(long size, long lastModified, String sha1) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.sha1 = sha1;
+    }
+
+    boolean isUpToDate(File file) {
+      return size == file.length() && lastModified == file.lastModified();
+    }
+  }
+
+  /**
+   * Returns hex encoded SHA-1 checksum of the file contents.
+   */
+  public String getSha1(File file) throws IOException {
+    String path = file.getCanonicalPath();
+    synchronized(this) {
+      Entry entry = getEntries().get(path);
+      if(entry != null && entry.isUpToDate(file)) {
+        return entry.sha1;
+      }
+    }
+
+    long size = file.length();
+    long lastModified = file.lastModified();
+    String sha1 = readSha1File(file);
+    if(sha1 == null) {
+      sha1 = Files.hash(file, Hashing.sha1()).toString();
+    }
+    if(size != file.length() || lastModified != file.lastModified()) {
+      // changed while reading, do not cache
+      return sha1;
+    }
+
+    synchronized(this) {
+      getEntries().put(path, new Entry(size, lastModified, sha1));
+      dirty = true;
+    }
+    return sha1;
+  }
+
+  /**
+   * Returns SHA-1 checksums of the files, in the same order. Checksums that are not cached yet are calculated by
+   * several threads.
+   */
+  public List<String> getSha1(List<File> files) throws IOException {
+    if(files.size() <= 1) {
+      List<String> result = new ArrayList<String>();
+      for(File file : files) {
+        result.add(getSha1(file));
+      }
+      return result;
+    }
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("M2E checksum %d").setDaemon(true) //$NON-NLS-1$
+        .build();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(THREADS, files.size()), threadFactory);
+    try {
+      List<Future<String>> futures = new ArrayList<Future<String>>();
+      for(final File file : files) {
+        futures.add(executor.submit(new Callable<String>() {
+          public String call() throws IOException {
+            return getSha1(file);
+          }
+        }));
+      }
+      List<String> result = new ArrayList<String>();
+      for(Future<String> future : futures) {
+        try {
+          result.add(future.get());
+        } catch(InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        } catch(ExecutionException ex) {
+          if(ex.getCause() instanceof IOException) {
+            throw (IOException) ex.getCause();
+          }
+          throw new IOException(ex.getCause());
+        }
+      }
+      return result;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns checksum from the <code>.sha1</code> file of a local repository artifact, or {@code null} if there is no
+   * such file or it is older than the artifact.
+   */
+  private String readSha1File(File file) {
+    if(localRepository == null || !file.getAbsolutePath().startsWith(localRepository.getAbsolutePath())) {
+      return null;
+    }
+    File sha1File = new File(file.getParentFile(), file.getName() + ".sha1"); //$NON-NLS-1$
+    if(!sha1File.isFile() || sha1File.lastModified() < file.lastModified()) {
+      return null;
+    }
+    try {
+      // "<checksum>" or "<checksum>  <file name>"
+      String content = Files.toString(sha1File, Charsets.US_ASCII).trim().toLowerCase();
+      String sha1 = content.split("\\s+")[0]; //$NON-NLS-1$
+      return SHA1.matcher(sha1).matches() ? sha1 : null;
+    } catch(IOException ex) {
+      return null;
+    }
+  }
+
+  private Map<String, Entry> getEntries() {
+    if(entries == null) {
+      entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+      load(entries);
+    }
+    return entries;
+  }
+
+  private void load(Map<String, Entry> entries) {
+    Properties properties = new Properties();
+    try {
+      BufferedInputStream is = new BufferedInputStream(new FileInputStream(cacheFile));
+      try {
+        properties.load(is);
+      } finally {
+        is.close();
+      }
+    } catch(FileNotFoundException ex) {
+      return;
+    } catch(IOException ex) {
+      log.warn("Could not read checksum cache " + cacheFile, ex);
+      return;
+    }
+    for(String path : properties.stringPropertyNames()) {
+      // size,lastModified,sha1
+      String[] value = properties.getProperty(path).split(","); //$NON-NLS-1$
+      try {
+        if(value.length == 3) {
+          entries.put(path, new Entry(Long.parseLong(value[0]), Long.parseLong(value[1]), value[2]));
+        }
+      } catch(NumberFormatException ex) {
+        // ignore malformed entry
+      }
+    }
+  }
+
+  /**
+   * Writes cached checksums to the cache file, if any checksums were added since the cache was loaded.
+   */
+  public synchronized void save() {
+    if(!dirty) {
+      return;
+    }
+    Properties properties = new Properties();
+    for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+      Entry value = entry.getValue();
+      properties.setProperty(entry.getKey(), value.size + "," + value.lastModified + "," + value.sha1); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    try {
+      cacheFile.getParentFile().mkdirs();
+      BufferedOutputStream os = new BufferedOutputStream(new FileOutputStream(cacheFile));
+      try {
+        properties.store(os, null);
+      } finally {
+        os.close();
+      }
+      dirty = false;
+    } catch(IOException ex) {
+      log.warn("Could not write checksum cache " + cacheFile, ex);
+    }
+  }
+}
@@ -14,16 +14,34 @@ package org.eclipse.m2e.core.internal.index.nexus;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.internal.index.IIndex;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
 import org.eclipse.m2e.core.internal.index.IndexedArtifact;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.index.SearchExpression;
@@ -35,11 +53,44 @@ import org.eclipse.m2e.core.internal.index.SearchExpression;
  * @author igor
  */
 public class CompositeIndex implements IIndex {
+  private static final Logger log = LoggerFactory.getLogger(CompositeIndex.class);
+
+  /**
+   * Wait for all indexes to respond, the default.
+   */
+  public static final long NO_TIMEOUT = 0L;
+
+  /**
+   * Time to wait for slow indexes when searching on behalf of the user, like search dialogs and content assist.
+   */
+  public static final long INTERACTIVE_SEARCH_TIMEOUT = 5 * 1000L;
+
+  private static final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+      .setNameFormat("M2E index search %d").setDaemon(true).build(); //$NON-NLS-1$
 
   private List<IIndex> indexes;
 
+  private final long timeout;
+
   public CompositeIndex(List<IIndex> indexes) {
+    this(indexes, NO_TIMEOUT);
+  }
+
+  /**
+   * @param timeout number of milliseconds to wait for indexes to respond to find and search requests, results of
+   *          indexes that did not respond in time are ignored. {@link #NO_TIMEOUT} waits for all indexes.
+   */
+  public CompositeIndex(List<IIndex> indexes, long timeout) {
     this.indexes = indexes;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Returns composite index of the same indexes that ignores results of indexes that did not respond within given
+   * number of milliseconds.
+   */
+  public CompositeIndex withTimeout(long timeout) {
+    return new CompositeIndex(indexes, timeout);
   }
 
   public IndexedArtifactFile getIndexedArtifactFile(ArtifactKey artifact) throws CoreException {
@@ -60,6 +111,21 @@ public class CompositeIndex implements IIndex {
     return !aifs.isEmpty() ? aifs.get(0) : null;
   }
 
+  public Map<File, IndexedArtifactFile> identify(List<File> files) throws CoreException {
+    Map<File, IndexedArtifactFile> result = new LinkedHashMap<File, IndexedArtifactFile>();
+    List<File> remaining = new ArrayList<File>(files);
+    for(IIndex index : indexes) {
+      if(remaining.isEmpty()) {
+        break;
+      }
+      // first one wins, file checksums are cached after the first index
+      Map<File, IndexedArtifactFile> identified = index.identify(remaining);
+      result.putAll(identified);
+      remaining.removeAll(identified.keySet());
+    }
+    return result;
+  }
+
   public List<IndexedArtifactFile> identifyAll(File file) throws CoreException {
     List<IndexedArtifactFile> result = new ArrayList<IndexedArtifactFile>();
 
@@ -75,53 +141,232 @@ public class CompositeIndex implements IIndex {
     return result;
   }
 
-  public Collection<IndexedArtifact> find(SearchExpression groupId, SearchExpression artifactId,
-      SearchExpression version, SearchExpression packaging) throws CoreException {
-    Set<IndexedArtifact> result = new TreeSet<IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Collection<IndexedArtifact> findResults = index.find(groupId, artifactId, version, packaging);
-      if(findResults != null) {
-        result.addAll(findResults);
+  public Collection<IndexedArtifact> find(final SearchExpression groupId, final SearchExpression artifactId,
+      final SearchExpression version, final SearchExpression packaging) throws CoreException {
+    FindQuery query = new FindQuery() {
+      Collection<IndexedArtifact> run(IIndex index) throws CoreException {
+        return index.find(groupId, artifactId, version, packaging);
       }
-    }
-    return result;
+    };
+    query(query);
+    return query.getResult();
   }
 
-  public Collection<IndexedArtifact> find(Collection<SearchExpression> groupId,
-      Collection<SearchExpression> artifactId, Collection<SearchExpression> version,
-      Collection<SearchExpression> packaging) throws CoreException {
+  public Collection<IndexedArtifact> find(final Collection<SearchExpression> groupId,
+      final Collection<SearchExpression> artifactId, final Collection<SearchExpression> version,
+      final Collection<SearchExpression> packaging) throws CoreException {
+    FindQuery query = new FindQuery() {
+      Collection<IndexedArtifact> run(IIndex index) throws CoreException {
+        return index.find(groupId, artifactId, version, packaging);
+      }
+    };
+    query(query);
+    return query.getResult();
+  }
 
-    Set<IndexedArtifact> result = new TreeSet<IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Collection<IndexedArtifact> findResults = index.find(groupId, artifactId, version, packaging);
-      if(findResults != null) {
-        result.addAll(findResults);
+  public Map<String, IndexedArtifact> search(final SearchExpression term, final String searchType)
+      throws CoreException {
+    SearchQuery query = new SearchQuery() {
+      Map<String, IndexedArtifact> run(IIndex index) throws CoreException {
+        return index.search(term, searchType);
+      }
+    };
+    query(query);
+    return query.getResult();
+  }
+
+  public Map<String, IndexedArtifact> search(final SearchExpression term, final String searchType,
+      final int classifier) throws CoreException {
+    SearchQuery query = new SearchQuery() {
+      Map<String, IndexedArtifact> run(IIndex index) throws CoreException {
+        return index.search(term, searchType, classifier);
+      }
+    };
+    query(query);
+    return query.getResult();
+  }
+
+  public IndexSearchResult search(final SearchExpression term, final String searchType, final int classifier,
+      final int maxResults) throws CoreException {
+    TopSearchQuery query = new TopSearchQuery() {
+      IndexSearchResult run(IIndex index) throws CoreException {
+        return index.search(term, searchType, classifier, maxResults);
+      }
+    };
+    query(query);
+    return query.getResult();
+  }
+
+  private static abstract class IndexQuery<T> {
+    abstract T run(IIndex index) throws CoreException;
+
+    /**
+     * Merges result of the index at given position. Called on the querying thread as soon as the index responded, so
+     * results arrive in any order and must be merged as if indexes were queried one after another.
+     */
+    abstract void merge(int position, T result);
+  }
+
+  /**
+   * Artifacts found by several indexes are taken from the first index, like {@link TreeSet#addAll(Collection)} of
+   * sequential queries did.
+   */
+  private static abstract class FindQuery extends IndexQuery<Collection<IndexedArtifact>> {
+    private final TreeMap<IndexedArtifact, Integer> positions = new TreeMap<IndexedArtifact, Integer>();
+
+    void merge(int position, Collection<IndexedArtifact> result) {
+      for(IndexedArtifact artifact : result) {
+        Integer previous = positions.get(artifact);
+        if(previous == null || position < previous.intValue()) {
+          // TreeMap keeps the original key of equal entries
+          positions.remove(artifact);
+          positions.put(artifact, position);
+        }
       }
     }
-    return result;
+
+    Collection<IndexedArtifact> getResult() {
+      return new TreeSet<IndexedArtifact>(positions.keySet());
+    }
   }
 
-  public Map<String, IndexedArtifact> search(SearchExpression term, String searchType) throws CoreException {
-    Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Map<String, IndexedArtifact> iresult = index.search(term, searchType);
-      if(iresult != null) {
-        result.putAll(iresult);
+  private static abstract class SearchQuery extends IndexQuery<Map<String, IndexedArtifact>> {
+    private final SearchResultMerger merger = new SearchResultMerger();
+
+    void merge(int position, Map<String, IndexedArtifact> result) {
+      merger.merge(position, result);
+    }
+
+    Map<String, IndexedArtifact> getResult() {
+      return merger.result;
+    }
+  }
+
+  /**
+   * Result is truncated if the result of any index was truncated.
+   */
+  private static abstract class TopSearchQuery extends IndexQuery<IndexSearchResult> {
+    private final SearchResultMerger merger = new SearchResultMerger();
+
+    private boolean truncated;
+
+    void merge(int position, IndexSearchResult result) {
+      merger.merge(position, result.getArtifacts());
+      truncated |= result.isTruncated();
+    }
+
+    IndexSearchResult getResult() {
+      return new IndexSearchResult(merger.result, truncated);
+    }
+  }
+
+  /**
+   * Artifacts found by several indexes are taken from the last index, like {@link Map#putAll(Map)} of sequential
+   * queries did.
+   */
+  private static class SearchResultMerger {
+    final Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
+
+    private final Map<String, Integer> positions = new HashMap<String, Integer>();
+
+    void merge(int position, Map<String, IndexedArtifact> iresult) {
+      for(Map.Entry<String, IndexedArtifact> entry : iresult.entrySet()) {
+        Integer previous = positions.get(entry.getKey());
+        if(previous == null || position > previous.intValue()) {
+          result.put(entry.getKey(), entry.getValue());
+          positions.put(entry.getKey(), position);
+        }
       }
     }
-    return result;
   }
 
-  public Map<String, IndexedArtifact> search(SearchExpression term, String searchType, int classifier)
-      throws CoreException {
-    Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Map<String, IndexedArtifact> iresult = index.search(term, searchType, classifier);
-      if(iresult != null) {
-        result.putAll(iresult);
+  /**
+   * Runs the query against all indexes concurrently and merges results as indexes respond. Each query uses its own
+   * threads, one per index, so slow or abandoned searches of earlier queries never delay later ones and the timeout
+   * only counts time spent searching. With a timeout, indexes that are being updated are skipped rather than waited
+   * for, and results of indexes that did not respond in time are ignored.
+   */
+  private <T> void query(final IndexQuery<T> query) throws CoreException {
+    if(indexes.size() <= 1) {
+      for(int i = 0; i < indexes.size(); i++ ) {
+        T result = query.run(indexes.get(i));
+        if(result != null) {
+          query.merge(i, result);
+        }
       }
+      return;
+    }
+
+    final boolean wait = timeout <= NO_TIMEOUT;
+    final long deadline = System.currentTimeMillis() + timeout;
+    ExecutorService executor = Executors.newFixedThreadPool(indexes.size(), threadFactory);
+    try {
+      CompletionService<T> completionService = new ExecutorCompletionService<T>(executor);
+      Map<Future<T>, Integer> pending = new HashMap<Future<T>, Integer>();
+      for(int i = 0; i < indexes.size(); i++ ) {
+        final IIndex index = indexes.get(i);
+        pending.put(completionService.submit(new Callable<T>() {
+          public T call() throws CoreException, InterruptedException {
+            Lock lock = !wait && index instanceof NexusIndex ? ((NexusIndex) index).getReadLock() : null;
+            if(lock == null) {
+              return query.run(index);
+            }
+            if(!lock.tryLock(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+              log.debug("Index {} is being updated, its results are ignored", index);
+              return null;
+            }
+            try {
+              return query.run(index);
+            } finally {
+              lock.unlock();
+            }
+          }
+        }), i);
+      }
+
+      CoreException failure = null;
+      try {
+        while(!pending.isEmpty()) {
+          Future<T> future = wait ? completionService.take() : completionService.poll(
+              Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+          if(future == null) {
+            break;
+          }
+          int position = pending.remove(future);
+          try {
+            T result = future.get();
+            if(result != null) {
+              query.merge(position, result);
+            }
+          } catch(ExecutionException ex) {
+            if(ex.getCause() instanceof CoreException) {
+              if(failure == null) {
+                failure = (CoreException) ex.getCause();
+              }
+            } else if(ex.getCause() instanceof RuntimeException) {
+              throw (RuntimeException) ex.getCause();
+            } else {
+              throw new RuntimeException(ex.getCause());
+            }
+          }
+        }
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new OperationCanceledException();
+      }
+
+      for(Map.Entry<Future<T>, Integer> entry : pending.entrySet()) {
+        // do not interrupt, lucene closes index files of interrupted threads
+        entry.getKey().cancel(false);
+        log.warn("Index {} did not respond in {} ms, its results are ignored", indexes.get(entry.getValue()), timeout);
+      }
+      if(failure != null) {
+        throw failure;
+      }
+    } finally {
+      // lets searches that did not respond in time finish on their own threads, which then terminate
+      executor.shutdown();
     }
-    return result;
   }
 
 }
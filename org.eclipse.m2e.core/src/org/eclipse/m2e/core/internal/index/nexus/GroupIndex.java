@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Immutable sorted array of all group ids of an indexing context. Finds groups with a given prefix with binary search,
+ * without walking or copying the whole group set.
+ *
+ * @since 1.7
+ */
+class GroupIndex {
+
+  private final String[] groups;
+
+  GroupIndex(Collection<String> groups) {
+    this.groups = groups.toArray(new String[groups.size()]);
+    Arrays.sort(this.groups);
+  }
+
+  /**
+   * Returns groups that start with, but are not equal to, the prefix. Returns all groups if the prefix is {@code null}.
+   */
+  public List<String> getGroups(String prefix) {
+    if(prefix == null) {
+      return Arrays.asList(groups);
+    }
+    int from = lowerBound(prefix);
+    if(from < groups.length && groups[from].equals(prefix)) {
+      from++ ;
+    }
+    // all strings with the prefix sort before the prefix followed by the highest char
+    int to = lowerBound(prefix + Character.MAX_VALUE);
+    return Arrays.asList(groups).subList(from, Math.max(from, to));
+  }
+
+  private int lowerBound(String key) {
+    int idx = Arrays.binarySearch(groups, key);
+    return idx >= 0 ? idx : -(idx + 1);
+  }
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+/**
+ * Wait and execution time of an executed index command.
+ *
+ * @since 1.7
+ */
+public class IndexCommandTiming {
+  private final String command;
+
+  private final long waitTime;
+
+  private final long runTime;
+
+  IndexCommandTiming(String command, long waitTime, long runTime) {
+    this.command = command;
+    this.waitTime = waitTime;
+    this.runTime = runTime;
+  }
+
+  /**
+   * Command type and repository, i.e. <code>update:local</code>.
+   */
+  public String getCommand() {
+    return command;
+  }
+
+  /**
+   * Milliseconds the command was queued before it started.
+   */
+  public long getWaitTime() {
+    return waitTime;
+  }
+
+  /**
+   * Milliseconds the command ran.
+   */
+  public long getRunTime() {
+    return runTime;
+  }
+
+  public String toString() {
+    return command + " waited " + waitTime + " ms, ran " + runTime + " ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+  }
+}
@@ -12,7 +12,22 @@
 package org.eclipse.m2e.core.internal.index.nexus;
 
 import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -26,18 +41,61 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.Messages;
 import org.eclipse.m2e.core.internal.jobs.IBackgroundProcessingQueue;
+import org.eclipse.m2e.core.internal.jobs.WorkerProgressMonitor;
+import org.eclipse.m2e.core.repository.IRepository;
 
 
+/**
+ * Background queue of index commands. Commands are executed in the order of decreasing priority, commands of the same
+ * priority in the order they were added. Adding a command with the same type and repository as an already queued
+ * command collapses the two. Commands of different repositories are executed concurrently, commands of the same
+ * repository hold the repository {@link IndexUpdaterRule} and never run at the same time.
+ */
 class IndexUpdaterJob extends Job implements IBackgroundProcessingQueue {
+  private static final Logger log = LoggerFactory.getLogger(IndexUpdaterJob.class);
+
+  /**
+   * Priority of commands requested by the user, i.e. forced index updates.
+   */
+  public static final int PRIORITY_INTERACTIVE = 10;
+
+  /**
+   * Priority of background index maintenance.
+   */
+  public static final int PRIORITY_BACKGROUND = 0;
+
+  private static final int MAX_CONCURRENT_COMMANDS = 3;
+
+  private static final int MAX_TIMINGS = 100;
 
   public static class IndexUpdaterRule implements ISchedulingRule {
 
+    private final String repositoryUid;
+
+    /**
+     * Rule of the index updater job itself, conflicts with no other rule.
+     */
+    public IndexUpdaterRule() {
+      this(null);
+    }
+
+    /**
+     * Rule of the repository index, conflicts with rules of the same repository.
+     */
+    public IndexUpdaterRule(String repositoryUid) {
+      this.repositoryUid = repositoryUid;
+    }
+
     public boolean contains(ISchedulingRule rule) {
-      return rule == this;
+      return isConflicting(rule);
     }
 
     public boolean isConflicting(ISchedulingRule rule) {
-      return rule == this;
+      if(rule == this) {
+        return true;
+      }
+      return repositoryUid != null && rule instanceof IndexUpdaterRule
+          && repositoryUid.equals(((IndexUpdaterRule) rule).repositoryUid);
     }
 
   }
@@ -46,33 +104,121 @@ class IndexUpdaterJob extends Job implements IBackgroundProcessingQueue {
     abstract void run(IProgressMonitor monitor) throws CoreException;
   }
 
-  private final Stack<IndexUpdaterJob.IndexCommand> updateQueue = new Stack<IndexUpdaterJob.IndexCommand>();
+  private static class QueuedCommand implements Comparable<QueuedCommand> {
+    final String key;
+
+    final String repositoryUid;
+
+    final long sequence;
+
+    final long queuedTime = System.currentTimeMillis();
+
+    int priority;
+
+    IndexCommand command;
+
+    QueuedCommand(String key, String repositoryUid, long sequence, int priority, IndexCommand command) {
+      this.key = key;
+      this.repositoryUid = repositoryUid;
+      this.sequence = sequence;
+      this.priority = priority;
+      this.command = command;
+    }
+
+    public int compareTo(QueuedCommand other) {
+      if(priority != other.priority) {
+        return priority > other.priority ? -1 : 1;
+      }
+      return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+  }
+
+  /**
+   * Queued commands, guarded by itself.
+   */
+  private final PriorityQueue<QueuedCommand> updateQueue = new PriorityQueue<QueuedCommand>();
+
+  /**
+   * Maps command key to the queued, not yet running command. Guarded by updateQueue.
+   */
+  private final Map<String, QueuedCommand> queuedCommands = new HashMap<String, QueuedCommand>();
+
+  /**
+   * Repositories with running commands. Guarded by updateQueue.
+   */
+  private final Set<String> runningRepositories = new HashSet<String>();
+
+  private long sequence;
+
+  private final LinkedList<IndexCommandTiming> timings = new LinkedList<IndexCommandTiming>();
 
   public IndexUpdaterJob(NexusIndexManager indexManager) {
     super(Messages.IndexUpdaterJob_title);
     setRule(new IndexUpdaterRule());
   }
 
-  public void addCommand(IndexUpdaterJob.IndexCommand indexCommand) {
-    updateQueue.add(indexCommand);
+  /**
+   * Queues index command of the repository. If a command of the same type is already queued for the repository, the
+   * command with higher priority is kept, or the queued one if priorities are the same.
+   */
+  public void addCommand(IRepository repository, String type, int priority, IndexUpdaterJob.IndexCommand indexCommand) {
+    String key = type + ':' + repository.getUid();
+    synchronized(updateQueue) {
+      QueuedCommand queued = queuedCommands.get(key);
+      if(queued != null) {
+        if(priority > queued.priority) {
+          // reinsert to restore queue order
+          updateQueue.remove(queued);
+          queued.priority = priority;
+          queued.command = indexCommand;
+          updateQueue.add(queued);
+        }
+        return;
+      }
+      queued = new QueuedCommand(key, repository.getUid(), sequence++ , priority, indexCommand);
+      queuedCommands.put(key, queued);
+      updateQueue.add(queued);
+    }
   }
 
-  public IStatus run(IProgressMonitor monitor) {
+  public IStatus run(final IProgressMonitor monitor) {
     monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
 
-    ArrayList<IStatus> problems = new ArrayList<IStatus>();
+    final List<IStatus> problems = Collections.synchronizedList(new ArrayList<IStatus>());
+    // commands of different repositories run concurrently
+    final IProgressMonitor commandMonitor = new WorkerProgressMonitor(monitor);
 
-    while(!updateQueue.isEmpty()) {
-      if(monitor.isCanceled()) {
-        throw new OperationCanceledException();
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("M2E index updater %d") //$NON-NLS-1$
+        .setDaemon(true).build();
+    ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_COMMANDS, threadFactory);
+    try {
+      synchronized(updateQueue) {
+        while(!monitor.isCanceled()) {
+          final QueuedCommand command = pollRunnable();
+          if(command != null) {
+            runningRepositories.add(command.repositoryUid);
+            executor.execute(new Runnable() {
+              public void run() {
+                execute(command, commandMonitor, problems);
+              }
+            });
+          } else if(!runningRepositories.isEmpty() || !updateQueue.isEmpty()) {
+            waitForQueue();
+          } else {
+            break;
+          }
+        }
+        // let running commands complete
+        while(!runningRepositories.isEmpty()) {
+          waitForQueue();
+        }
       }
+    } finally {
+      executor.shutdown();
+    }
 
-      IndexUpdaterJob.IndexCommand command = updateQueue.pop();
-      try {
-        command.run(monitor);
-      } catch(CoreException ex) {
-        problems.add(ex.getStatus());
-      }
+    if(monitor.isCanceled()) {
+      throw new OperationCanceledException();
     }
 
     monitor.done();
@@ -81,8 +227,81 @@ class IndexUpdaterJob extends Job implements IBackgroundProcessingQueue {
         problems.toArray(new IStatus[problems.size()]), null, null);
   }
 
+  /**
+   * Removes and returns the highest priority command of a repository without running commands. Callers must hold
+   * updateQueue monitor.
+   */
+  private QueuedCommand pollRunnable() {
+    QueuedCommand result = null;
+    for(QueuedCommand command : updateQueue) {
+      if(!runningRepositories.contains(command.repositoryUid) && (result == null || command.compareTo(result) < 0)) {
+        result = command;
+      }
+    }
+    if(result != null) {
+      updateQueue.remove(result);
+      queuedCommands.remove(result.key);
+    }
+    return result;
+  }
+
+  private void waitForQueue() {
+    try {
+      updateQueue.wait(100L);
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new OperationCanceledException();
+    }
+  }
+
+  void execute(QueuedCommand command, IProgressMonitor monitor, List<IStatus> problems) {
+    long start = System.currentTimeMillis();
+    IndexUpdaterRule rule = new IndexUpdaterRule(command.repositoryUid);
+    Job.getJobManager().beginRule(rule, monitor);
+    try {
+      command.command.run(monitor);
+    } catch(CoreException ex) {
+      problems.add(ex.getStatus());
+    } catch(RuntimeException ex) {
+      problems.add(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1, ex.getMessage(), ex));
+    } finally {
+      Job.getJobManager().endRule(rule);
+      IndexCommandTiming timing = new IndexCommandTiming(command.key, start - command.queuedTime, System.currentTimeMillis()
+          - start);
+      log.debug("Index command {}", timing); //$NON-NLS-1$
+      synchronized(updateQueue) {
+        timings.add(timing);
+        if(timings.size() > MAX_TIMINGS) {
+          timings.removeFirst();
+        }
+        runningRepositories.remove(command.repositoryUid);
+        updateQueue.notifyAll();
+      }
+    }
+  }
+
   public boolean isEmpty() {
-    return updateQueue.isEmpty();
+    synchronized(updateQueue) {
+      return updateQueue.isEmpty() && runningRepositories.isEmpty();
+    }
+  }
+
+  /**
+   * Returns number of queued commands, not including running commands.
+   */
+  public int getQueueSize() {
+    synchronized(updateQueue) {
+      return updateQueue.size();
+    }
+  }
+
+  /**
+   * Returns timings of the recently executed commands, oldest first.
+   */
+  public List<IndexCommandTiming> getCommandTimings() {
+    synchronized(updateQueue) {
+      return new ArrayList<IndexCommandTiming>(timings);
+    }
   }
 
 }
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.apache.maven.index.ArtifactContext;
+import org.apache.maven.index.ArtifactContextProducer;
+import org.apache.maven.index.NexusIndexer;
+import org.apache.maven.index.context.IndexingContext;
+
+
+/**
+ * Incrementally indexes artifacts of a repository on the local file system. Last modification time of every repository
+ * directory that contains files is remembered between scans, and only artifacts of directories that were added or
+ * changed since the previous scan are (re)indexed. Repository directories are walked and new index documents are
+ * created by several threads.
+ * <p>
+ * Maven writes artifacts to a temporary file and renames it into place, so new or updated artifacts always change
+ * modification time of their directory.
+ *
+ * @since 1.7
+ */
+class LocalRepositoryIndexer {
+  private static final Logger log = LoggerFactory.getLogger(LocalRepositoryIndexer.class);
+
+  /**
+   * Directories this deep are walked by separate threads, i.e. {@code org/apache}, {@code com/google}.
+   */
+  private static final int SPLIT_DEPTH = 2;
+
+  private static final int BATCH_SIZE = 100;
+
+  private final NexusIndexer indexer;
+
+  private final ArtifactContextProducer artifactContextProducer;
+
+  private final File stateFile;
+
+  private final int parallelism;
+
+  LocalRepositoryIndexer(NexusIndexer indexer, ArtifactContextProducer artifactContextProducer, File stateFile) {
+    this.indexer = indexer;
+    this.artifactContextProducer = artifactContextProducer;
+    this.stateFile = stateFile;
+    this.parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Result of repository scan.
+   */
+  static class ScanResult {
+    /**
+     * Maps repository directory path, relative to the repository basedir, to directory last modification time.
+     */
+    final Map<String, Long> directories = new ConcurrentHashMap<String, Long>();
+
+    /**
+     * Artifacts of the directories that were added or changed since the previous scan.
+     */
+    final List<ArtifactContext> artifacts = Collections.synchronizedList(new ArrayList<ArtifactContext>());
+
+    /**
+     * Returns paths of the directories that were removed or changed since the previous scan.
+     */
+    Set<String> getStaleDirectories(Map<String, Long> previous) {
+      Set<String> result = new HashSet<String>();
+      for(Map.Entry<String, Long> entry : previous.entrySet()) {
+        if(!entry.getValue().equals(directories.get(entry.getKey()))) {
+          result.add(entry.getKey());
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Returns directory modification times recorded by the last scan, or {@code null} if the repository was not scanned
+   * yet or the recorded state cannot be read.
+   */
+  public Map<String, Long> readState() {
+    Properties properties = new Properties();
+    try {
+      BufferedInputStream is = new BufferedInputStream(new FileInputStream(stateFile));
+      try {
+        properties.load(is);
+      } finally {
+        is.close();
+      }
+    } catch(FileNotFoundException ex) {
+      return null;
+    } catch(IOException ex) {
+      log.warn("Could not read local repository index state " + stateFile, ex);
+      return null;
+    }
+    Map<String, Long> directories = new HashMap<String, Long>();
+    for(String path : properties.stringPropertyNames()) {
+      try {
+        directories.put(path, Long.valueOf(properties.getProperty(path)));
+      } catch(NumberFormatException ex) {
+        return null;
+      }
+    }
+    return directories;
+  }
+
+  public void writeState(Map<String, Long> directories) throws IOException {
+    Properties properties = new Properties();
+    for(Map.Entry<String, Long> entry : directories.entrySet()) {
+      properties.setProperty(entry.getKey(), entry.getValue().toString());
+    }
+    stateFile.getParentFile().mkdirs();
+    File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+    BufferedOutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile));
+    try {
+      properties.store(os, null);
+    } finally {
+      os.close();
+    }
+    if(!tmpFile.renameTo(stateFile)) {
+      // renameTo does not replace existing files on some platforms
+      stateFile.delete();
+      if(!tmpFile.renameTo(stateFile)) {
+        throw new IOException("Could not write " + stateFile);
+      }
+    }
+  }
+
+  public void deleteState() {
+    stateFile.delete();
+  }
+
+  /**
+   * Walks repository of the indexing context and collects artifacts of the directories that changed since the
+   * previous scan.
+   */
+  public ScanResult scan(final IndexingContext context, final Map<String, Long> previous, IProgressMonitor monitor)
+      throws IOException {
+    final ScanResult result = new ScanResult();
+    File basedir = context.getRepository();
+    if(!basedir.isDirectory()) {
+      return result;
+    }
+
+    List<File> roots = new ArrayList<File>();
+    walk(context, basedir, "", 0, previous, result, roots); //$NON-NLS-1$
+
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    final String basePath = basedir.getAbsolutePath();
+    for(final File root : roots) {
+      tasks.add(new Callable<Void>() {
+        public Void call() {
+          String path = root.getAbsolutePath().substring(basePath.length() + 1).replace(File.separatorChar, '/');
+          walk(context, root, path, SPLIT_DEPTH, previous, result, null);
+          return null;
+        }
+      });
+    }
+    invokeAll(tasks, monitor);
+
+    return result;
+  }
+
+  /**
+   * Walks the directory. Subdirectories at {@link #SPLIT_DEPTH} are added to the roots list instead of being walked,
+   * unless the list is {@code null}.
+   */
+  void walk(IndexingContext context, File dir, String path, int depth, Map<String, Long> previous, ScanResult result,
+      List<File> roots) {
+    File[] files = dir.listFiles();
+    if(files == null) {
+      return;
+    }
+    List<File> artifactFiles = new ArrayList<File>();
+    for(File file : files) {
+      if(file.getName().startsWith(".")) { //$NON-NLS-1$
+        // .cache, .meta, .locks and other non-repository content
+        continue;
+      }
+      if(file.isDirectory()) {
+        String childPath = path.length() > 0 ? path + '/' + file.getName() : file.getName();
+        if(roots != null && depth + 1 == SPLIT_DEPTH) {
+          roots.add(file);
+        } else {
+          walk(context, file, childPath, depth + 1, previous, result, roots);
+        }
+      } else {
+        artifactFiles.add(file);
+      }
+    }
+    if(!artifactFiles.isEmpty()) {
+      Long lastModified = Long.valueOf(dir.lastModified());
+      result.directories.put(path, lastModified);
+      if(!lastModified.equals(previous.get(path))) {
+        Set<String> uinfos = new HashSet<String>();
+        for(File file : artifactFiles) {
+          ArtifactContext artifactContext = artifactContextProducer.getArtifactContext(context, file);
+          // poms and artifacts of the same GAV produce the same document
+          if(artifactContext != null && uinfos.add(artifactContext.getArtifactInfo().getUinfo())) {
+            result.artifacts.add(artifactContext);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds artifacts to the index using several threads.
+   */
+  public void index(final IndexingContext context, List<ArtifactContext> artifacts, IProgressMonitor monitor)
+      throws IOException {
+    List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+    for(final List<ArtifactContext> batch : Lists.partition(artifacts, BATCH_SIZE)) {
+      tasks.add(new Callable<Void>() {
+        public Void call() throws IOException {
+          indexer.addArtifactsToIndex(batch, context);
+          return null;
+        }
+      });
+    }
+    invokeAll(tasks, monitor);
+
+    // concurrent batches may overwrite each other's group list updates
+    context.rebuildGroups();
+    context.commit();
+  }
+
+  private void invokeAll(Collection<Callable<Void>> tasks, IProgressMonitor monitor) throws IOException {
+    if(tasks.isEmpty()) {
+      return;
+    }
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("M2E local repository indexer %d") //$NON-NLS-1$
+        .setDaemon(true).build();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), threadFactory);
+    try {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for(Callable<Void> task : tasks) {
+        futures.add(executor.submit(task));
+      }
+      int done = 0;
+      for(Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch(InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        } catch(ExecutionException ex) {
+          Throwable cause = ex.getCause();
+          if(cause instanceof IOException) {
+            throw (IOException) cause;
+          }
+          if(cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if(cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new IOException(cause);
+        }
+        done++ ;
+        if(monitor != null) {
+          monitor.subTask(done + "/" + futures.size()); //$NON-NLS-1$
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -14,7 +14,9 @@ package org.eclipse.m2e.core.internal.index.nexus;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -28,6 +30,8 @@ import org.apache.maven.index.MAVEN;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.internal.index.IIndex;
 import org.eclipse.m2e.core.internal.index.IMutableIndex;
+import org.eclipse.m2e.core.internal.index.IndexSearchCallback;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
 import org.eclipse.m2e.core.internal.index.IndexedArtifact;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.index.SearchExpression;
@@ -68,6 +72,10 @@ public class NexusIndex implements IIndex, IMutableIndex {
     this.indexDetails = indexDetails;
   }
 
+  public String toString() {
+    return repository.toString();
+  }
+
   public String getRepositoryUrl() {
     return this.repository.getUrl();
   }
@@ -141,6 +149,10 @@ public class NexusIndex implements IIndex, IMutableIndex {
     return indexManager.identify(repository, file);
   }
 
+  public Map<File, IndexedArtifactFile> identify(List<File> files) throws CoreException {
+    return indexManager.identify(repository, files);
+  }
+
   public void updateIndex(boolean force, IProgressMonitor monitor) throws CoreException {
     indexManager.updateIndex(repository, force, monitor);
   }
@@ -161,6 +173,10 @@ public class NexusIndex implements IIndex, IMutableIndex {
     return repository;
   }
 
+  Lock getReadLock() {
+    return indexManager.getReadLock(repository);
+  }
+
   public boolean isEnabled() {
     return DETAILS_MIN.equals(indexDetails) || DETAILS_FULL.equals(indexDetails);
   }
@@ -177,4 +193,18 @@ public class NexusIndex implements IIndex, IMutableIndex {
       throws CoreException {
     return indexManager.search(getRepository(), term, searchType, classifier);
   }
+
+  public IndexSearchResult search(SearchExpression term, String searchType, int classifier, int maxResults)
+      throws CoreException {
+    return indexManager.search(getRepository(), term, searchType, classifier, maxResults);
+  }
+
+  /**
+   * Streams matching artifact files to the callback, see
+   * {@link NexusIndexManager#search(IRepository, SearchExpression, String, int, int, int, IndexSearchCallback)}
+   */
+  public boolean search(SearchExpression term, String searchType, int classifier, int offset, int maxResults,
+      IndexSearchCallback callback) throws CoreException {
+    return indexManager.search(getRepository(), term, searchType, classifier, offset, maxResults, callback);
+  }
 }
@@ -18,13 +18,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,10 +34,14 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.CacheStats;
+
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -47,7 +53,6 @@ import org.eclipse.osgi.util.NLS;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
@@ -96,6 +101,8 @@ import org.eclipse.m2e.core.internal.equinox.EquinoxLocker;
 import org.eclipse.m2e.core.internal.index.IIndex;
 import org.eclipse.m2e.core.internal.index.IndexListener;
 import org.eclipse.m2e.core.internal.index.IndexManager;
+import org.eclipse.m2e.core.internal.index.IndexSearchCallback;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
 import org.eclipse.m2e.core.internal.index.IndexedArtifact;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.index.MatchTyped;
@@ -104,7 +111,7 @@ import org.eclipse.m2e.core.internal.index.SearchExpression;
 import org.eclipse.m2e.core.internal.index.SourcedSearchExpression;
 import org.eclipse.m2e.core.internal.index.nexus.IndexUpdaterJob.IndexCommand;
 import org.eclipse.m2e.core.internal.repository.IRepositoryIndexer;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
@@ -115,11 +122,13 @@ import org.eclipse.m2e.core.repository.IRepositoryRegistry;
 /**
  * @author Eugene Kuleshov
  */
-public class NexusIndexManager implements IndexManager, IMavenProjectChangedListener, IRepositoryIndexer {
+public class NexusIndexManager implements IndexManager, IMavenProjectChangedBatchListener, IRepositoryIndexer {
   private static final Logger log = LoggerFactory.getLogger(NexusIndexManager.class);
 
   public static final int MIN_CLASS_QUERY_LENGTH = 6;
 
+  private static final long WORKSPACE_UPDATE_DELAY = 500L;
+
   /**
    * Lazy instantiated nexus indexer instance.
    */
@@ -154,18 +163,32 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   private final List<IndexListener> indexListeners = new ArrayList<IndexListener>();
 
-  private NexusIndex localIndex;
+  private volatile NexusIndex localIndex;
 
   private final NexusIndex workspaceIndex;
 
   private final IndexUpdaterJob updaterJob;
 
+  /**
+   * Maps pom file to workspace project change queued for the workspace index.
+   */
+  private final Map<File, WorkspaceIndexChange> pendingWorkspaceChanges = new LinkedHashMap<File, WorkspaceIndexChange>();
+
   private Properties indexDetails = new Properties();
 
   private Set<String> updatingIndexes = new HashSet<String>();
 
   private final IndexUpdater indexUpdater;
 
+  private ChecksumCache checksumCache;
+
+  /**
+   * Maps repository UID to group index of the repository. Entries are removed when the repository index changes.
+   */
+  private final Map<String, GroupIndex> groupIndexes = new ConcurrentHashMap<String, GroupIndex>();
+
+  private final SearchResultCache searchResultCache = new SearchResultCache();
+
   private static final EquinoxLocker locker = new EquinoxLocker();
 
   /**
@@ -173,7 +196,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
    * removed from the map, although jvm garbage collector may remove otherwise unused entries to reclaim the little
    * memory they use. Never access this map directly. #getIndexLock must be used to get repository lock object.
    */
-  private final Map<String, Object> indexLocks = new WeakHashMap<String, Object>();
+  private final Map<String, ReentrantReadWriteLock> indexLocks = new WeakHashMap<String, ReentrantReadWriteLock>();
 
   private final PlexusContainer container;
 
@@ -195,6 +218,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
     this.updaterJob = new IndexUpdaterJob(this);
 
+    addIndexListener(searchResultCache);
+
     this.workspaceIndex = new NexusIndex(this, repositoryRegistry.getWorkspaceRepository(), NexusIndex.DETAILS_MIN);
   }
 
@@ -238,11 +263,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         query.add(constructQuery(MAVEN.CLASSIFIER, gav.getClassifier(), SearchType.EXACT), BooleanClause.Occur.MUST);
       }
 
-      synchronized(getIndexLock(repository)) {
+      ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+      indexLock.lock();
+      try {
         ArtifactInfo artifactInfo = getIndexer().identify(query, Collections.singleton(getIndexingContext(repository)));
         if(artifactInfo != null) {
           return getIndexedArtifactFile(artifactInfo);
         }
+      } finally {
+        indexLock.unlock();
       }
     } catch(Exception ex) {
       String msg = "Illegal artifact coordinate " + ex.getMessage();
@@ -282,7 +311,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   public IndexedArtifactFile identify(File file) throws CoreException {
     try {
-      ArtifactInfo artifactInfo = getIndexer().identify(file);
+      ArtifactInfo artifactInfo = identify(file, getIndexer().getIndexingContexts().values());
       return artifactInfo == null ? null : getIndexedArtifactFile(artifactInfo);
     } catch(IOException ex) {
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
@@ -292,12 +321,20 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   protected IndexedArtifactFile identify(IRepository repository, File file) throws CoreException {
     try {
-      IndexingContext context = getIndexingContext(repository);
-      if(context == null) {
-        return null;
+      // checksum is calculated before the index is locked
+      String sha1 = getChecksumCache().getSha1(file);
+      ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+      indexLock.lock();
+      try {
+        IndexingContext context = getIndexingContext(repository);
+        if(context == null) {
+          return null;
+        }
+        ArtifactInfo artifactInfo = identify(sha1, Collections.singleton(context));
+        return artifactInfo == null ? null : getIndexedArtifactFile(artifactInfo);
+      } finally {
+        indexLock.unlock();
       }
-      ArtifactInfo artifactInfo = identify(file, Collections.singleton(context));
-      return artifactInfo == null ? null : getIndexedArtifactFile(artifactInfo);
     } catch(IOException ex) {
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
           Messages.NexusIndexManager_error_search, ex));
@@ -361,10 +398,9 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   /**
-   * @return Map<String, IndexedArtifact>
+   * Returns index query for the given search term and type, or <code>null</code> if the search type is not supported.
    */
-  protected Map<String, IndexedArtifact> search(IRepository repository, SearchExpression term, String type,
-      int classifier) throws CoreException {
+  private Query constructQuery(SearchExpression term, String type, int classifier) {
     Query query;
     if(IIndex.SEARCH_GROUP.equals(type)) {
       query = constructQuery(MAVEN.GROUP_ID, term);
@@ -420,46 +456,133 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       query = constructQuery(MAVEN.SHA1, term.getStringValue(), term.getStringValue().length() == 40 ? SearchType.EXACT
           : SearchType.SCORED);
     } else {
-      return Collections.emptyMap();
+      query = null;
     }
 
-    Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
+    return query;
+  }
 
-    try {
-      IteratorSearchResponse response;
+  /**
+   * @return Map<String, IndexedArtifact>
+   */
+  protected Map<String, IndexedArtifact> search(IRepository repository, SearchExpression term, String type,
+      int classifier) throws CoreException {
+    return search(repository, term, type, classifier, 0);
+  }
+
+  /**
+   * Same as {@link #search(IRepository, SearchExpression, String, int)}, but only considers up to
+   * <code>maxResults</code> matching artifact files with the highest relevance. Non-positive <code>maxResults</code>
+   * means no limit.
+   */
+  protected IndexSearchResult search(IRepository repository, SearchExpression term, String type, int classifier,
+      int maxResults) throws CoreException {
+    SearchResultCache.Key cacheKey = searchResultCache.getKey(repository, term, type, classifier, maxResults);
+    IndexSearchResult cached = searchResultCache.get(cacheKey);
+    if(cached != null) {
+      return cached;
+    }
+    long generation = searchResultCache.getGeneration();
 
-      synchronized(getIndexLock(repository)) {
+    final Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
+
+    boolean truncated = search(repository, term, type, classifier, 0, maxResults, new IndexSearchCallback() {
+      public boolean accept(IndexedArtifactFile artifactFile, float score) {
+        addArtifactFile(result, artifactFile, null, null, artifactFile.type);
+        return true;
+      }
+    });
+
+    // https://issues.sonatype.org/browse/MNGECLIPSE-1630
+    // lucene can't handle prefix queries that match many index entries.
+    // to workaround, use term query to locate group artifacts and manually
+    // match subgroups
+    if(IIndex.SEARCH_GROUP.equals(type)) {
+      try {
+        ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+        indexLock.lock();
+        try {
+          GroupIndex groupIndex = getGroupIndex(repository);
+          if(groupIndex != null) {
+            for(String group : groupIndex.getGroups(term != null ? term.getStringValue() : null)) {
+              String key = getArtifactFileKey(group, group, null, null);
+              result.put(key, new IndexedArtifact(group, group, null, null, null));
+            }
+          }
+        } finally {
+          indexLock.unlock();
+        }
+      } catch(IOException ex) {
+        throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+            Messages.NexusIndexManager_error_search, ex));
+      }
+    }
+
+    IndexSearchResult searchResult = new IndexSearchResult(result, truncated);
+    searchResultCache.put(cacheKey, searchResult, generation);
+    return searchResult;
+  }
+
+  /**
+   * Returns hit and miss statistics of the search result cache.
+   * 
+   * @since 1.7
+   */
+  public CacheStats getSearchCacheStats() {
+    return searchResultCache.getStats();
+  }
+
+  /**
+   * Streams matching artifact files to the callback in the order of decreasing relevance, without collecting them in
+   * memory. Search stops when the callback returns <code>false</code> or after <code>maxResults</code> hits, if
+   * <code>maxResults</code> is positive. First <code>offset</code> hits are skipped, which allows paged search.
+   * 
+   * @param repository repository to search, or <code>null</code> to search all indexes
+   * @return <code>true</code> if more than <code>maxResults</code> hits matched, so the search was limited
+   */
+  public boolean search(IRepository repository, SearchExpression term, String type, int classifier, int offset,
+      int maxResults, IndexSearchCallback callback) throws CoreException {
+    Query query = constructQuery(term, type, classifier);
+    if(query == null) {
+      return false;
+    }
+    try {
+      ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+      indexLock.lock();
+      try {
         IndexingContext context = getIndexingContext(repository);
+        IteratorSearchRequest request;
         if(context == null) {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query));
+          request = new IteratorSearchRequest(query);
         } else {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query, context));
+          request = new IteratorSearchRequest(query, context);
         }
-
-        for(ArtifactInfo artifactInfo : response.getResults()) {
-          addArtifactFile(result, getIndexedArtifactFile(artifactInfo), null, null, artifactInfo.packaging);
+        if(offset > 0) {
+          request.setStart(offset);
+        }
+        if(maxResults > 0) {
+          // one more hit tells whether the search was limited
+          request.setCount(maxResults + 1);
         }
+        IteratorSearchResponse response = getIndexer().searchIterator(request);
 
-        // https://issues.sonatype.org/browse/MNGECLIPSE-1630
-        // lucene can't handle prefix queries that match many index entries.
-        // to workaround, use term query to locate group artifacts and manually
-        // match subgroups
-        if(IIndex.SEARCH_GROUP.equals(type) && context != null) {
-          Set<String> groups = context.getAllGroups();
-          for(String group : groups) {
-            if(term == null || group.startsWith(term.getStringValue()) && !group.equals(term.getStringValue())) {
-              String key = getArtifactFileKey(group, group, null, null);
-              result.put(key, new IndexedArtifact(group, group, null, null, null));
-            }
+        int hits = 0;
+        for(ArtifactInfo artifactInfo : response.getResults()) {
+          if(maxResults > 0 && hits++ >= maxResults) {
+            return true;
+          }
+          if(!callback.accept(getIndexedArtifactFile(artifactInfo), artifactInfo.getLuceneScore())) {
+            break;
           }
         }
+        return false;
+      } finally {
+        indexLock.unlock();
       }
     } catch(IOException ex) {
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
           Messages.NexusIndexManager_error_search, ex));
     }
-
-    return result;
   }
 
   /**
@@ -478,13 +601,17 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     try {
       IteratorSearchResponse response;
 
-      synchronized(getIndexLock(repository)) {
+      ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+      indexLock.lock();
+      try {
         IndexingContext context = getIndexingContext(repository);
         if(context == null) {
           response = getIndexer().searchIterator(new IteratorSearchRequest(query));
         } else {
           response = getIndexer().searchIterator(new IteratorSearchRequest(query, context));
         }
+      } finally {
+        indexLock.unlock();
       }
 
       for(ArtifactInfo artifactInfo : response.getResults()) {
@@ -519,20 +646,55 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     context.purge();
   }
 
+  /**
+   * Incrementally updates index of the repository on the local file system. Only artifacts of repository directories
+   * changed since the previous update are indexed, and the write lock is only held to apply the changes to the index.
+   * If the repository was not indexed before, the index is rebuilt in a separate indexing context, which replaces the
+   * contents of the current index when complete. Current index remains searchable in both cases.
+   */
   private void reindexLocalRepository(IRepository repository, boolean force, final IProgressMonitor monitor)
       throws CoreException {
     if(!force) {
       return;
     }
+    long start = System.currentTimeMillis();
     try {
       fireIndexUpdating(repository);
-      //IndexInfo indexInfo = getIndexInfo(indexName);
-      IndexingContext context = getIndexingContext(repository);
-      purgeCurrentIndex(context);
-      if(context.getRepository().isDirectory()) {
-        getIndexer().scan(context, new ArtifactScanningMonitor(context.getRepository(), monitor), false);
+      IndexingContext context;
+      ReentrantReadWriteLock.ReadLock readLock = getIndexLock(repository).readLock();
+      readLock.lock();
+      try {
+        context = getIndexingContext(repository);
+      } finally {
+        readLock.unlock();
+      }
+      if(context == null) {
+        return;
+      }
+
+      LocalRepositoryIndexer localIndexer = new LocalRepositoryIndexer(getIndexer(), getArtifactContextProducer(),
+          new File(baseIndexDir, repository.getUid() + ".directories")); //$NON-NLS-1$
+      Map<String, Long> previous = localIndexer.readState();
+      boolean rebuild = previous == null || context.getTimestamp() == null;
+      if(rebuild) {
+        previous = Collections.emptyMap();
+      }
+      LocalRepositoryIndexer.ScanResult scan = localIndexer.scan(context, previous, monitor);
+
+      boolean updated;
+      if(rebuild) {
+        updated = rebuildLocalRepositoryIndex(repository, context, localIndexer, scan.artifacts, monitor);
+      } else {
+        updated = updateLocalRepositoryIndex(repository, context, scan.getStaleDirectories(previous), scan.artifacts);
+      }
+      if(updated) {
+        localIndexer.writeState(scan.directories);
+        log.info("Updated local repository index, indexed {} artifacts in {} ms", scan.artifacts.size(),
+            System.currentTimeMillis() - start);
+      } else {
+        // indexing context was replaced concurrently, next update will start over
+        localIndexer.deleteState();
       }
-      log.info("Updated local repository index");
     } catch(Exception ex) {
       log.error("Unable to re-index " + repository.toString(), ex);
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
@@ -542,6 +704,82 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     }
   }
 
+  private boolean rebuildLocalRepositoryIndex(IRepository repository, IndexingContext context,
+      LocalRepositoryIndexer localIndexer, List<ArtifactContext> artifacts, IProgressMonitor monitor)
+      throws IOException {
+    String id = repository.getUid() + "-rebuild"; //$NON-NLS-1$
+    File directory = new File(baseIndexDir, id);
+    FileUtils.deleteDirectory(directory);
+    IndexingContext rebuildContext = getIndexer().addIndexingContextForced(id, repository.getUid(),
+        context.getRepository(), FSDirectory.getDirectory(directory), null, null, context.getIndexCreators());
+    try {
+      // not to show up in searches across all contexts
+      rebuildContext.setSearchable(false);
+      localIndexer.index(rebuildContext, artifacts, monitor);
+
+      ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+      indexLock.lock();
+      try {
+        if(getIndexingContext(repository) != context) {
+          return false;
+        }
+        context.replace(rebuildContext.getIndexDirectory());
+        return true;
+      } finally {
+        indexLock.unlock();
+      }
+    } finally {
+      getIndexer().removeIndexingContext(rebuildContext, true);
+    }
+  }
+
+  private boolean updateLocalRepositoryIndex(IRepository repository, IndexingContext context,
+      Set<String> staleDirectories, List<ArtifactContext> artifacts) throws IOException {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
+      if(getIndexingContext(repository) != context) {
+        return false;
+      }
+      Set<String> uinfos = new HashSet<String>();
+      for(ArtifactContext artifact : artifacts) {
+        uinfos.add(artifact.getArtifactInfo().getUinfo());
+      }
+      List<ArtifactContext> removed = new ArrayList<ArtifactContext>();
+      for(String path : staleDirectories) {
+        // repository layout is group/id/path/artifactId/version
+        int versionIdx = path.lastIndexOf('/');
+        int artifactIdx = versionIdx > 0 ? path.lastIndexOf('/', versionIdx - 1) : -1;
+        if(artifactIdx <= 0) {
+          continue;
+        }
+        String groupId = path.substring(0, artifactIdx).replace('/', '.');
+        BooleanQuery query = new BooleanQuery();
+        query.add(constructQuery(MAVEN.GROUP_ID, groupId, SearchType.EXACT), BooleanClause.Occur.MUST);
+        query.add(constructQuery(MAVEN.ARTIFACT_ID, path.substring(artifactIdx + 1, versionIdx), SearchType.EXACT),
+            BooleanClause.Occur.MUST);
+        query.add(constructQuery(MAVEN.VERSION, path.substring(versionIdx + 1), SearchType.EXACT),
+            BooleanClause.Occur.MUST);
+        IteratorSearchResponse response = getIndexer().searchIterator(new IteratorSearchRequest(query, context));
+        for(ArtifactInfo artifactInfo : response.getResults()) {
+          // documents of artifacts that are still there are replaced below
+          if(!uinfos.contains(artifactInfo.getUinfo())) {
+            removed.add(new ArtifactContext(null, null, null, artifactInfo, null));
+          }
+        }
+      }
+      if(!removed.isEmpty()) {
+        getIndexer().deleteArtifactsFromIndex(removed, context);
+      }
+      if(!artifacts.isEmpty()) {
+        getIndexer().addArtifactsToIndex(artifacts, context);
+      }
+      return true;
+    } finally {
+      indexLock.unlock();
+    }
+  }
+
   private void reindexWorkspace(boolean force, IProgressMonitor monitor) throws CoreException {
     IRepository workspaceRepository = repositoryRegistry.getWorkspaceRepository();
     if(!force)
@@ -563,7 +801,9 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   protected void addDocument(IRepository repository, File file, ArtifactKey key) {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
       IndexingContext context = getIndexingContext(repository);
       if(context == null) {
         // TODO log
@@ -578,10 +818,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
           artifactContext = getArtifactContext(file, context);
         }
         getIndexer().addArtifactToIndex(artifactContext, context);
+        // new artifact may add a new group or search result, no index change notification is sent
+        groupIndexes.remove(repository.getUid());
+        searchResultCache.invalidate(repository);
       } catch(Exception ex) {
         String msg = "Unable to add " + getDocumentKey(key);
         log.error(msg, ex);
       }
+    } finally {
+      indexLock.unlock();
     }
   }
 
@@ -598,7 +843,9 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   protected void removeDocument(IRepository repository, File file, ArtifactKey key, IMavenProjectFacade facade) {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
       try {
         IndexingContext context = getIndexingContext(repository);
         if(context == null) {
@@ -621,6 +868,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         String msg = "Unable to remove " + getDocumentKey(key);
         log.error(msg, ex);
       }
+    } finally {
+      indexLock.unlock();
     }
 
     fireIndexChanged(repository);
@@ -656,14 +905,35 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
           updateIndex(repository, force, monitor);
         }
       };
-      updaterJob.addCommand(command);
+      // forced updates are requested by the user and take precedence over startup updates
+      updaterJob.addCommand(repository, "update", force ? IndexUpdaterJob.PRIORITY_INTERACTIVE //$NON-NLS-1$
+          : IndexUpdaterJob.PRIORITY_BACKGROUND, command);
       updaterJob.schedule(1000L);
     }
   }
 
+  /**
+   * Returns group index of the repository, building it from the indexing context if necessary. Callers must hold the
+   * repository read or write lock.
+   */
+  private GroupIndex getGroupIndex(IRepository repository) throws IOException {
+    IndexingContext context = getIndexingContext(repository);
+    if(context == null) {
+      return null;
+    }
+    GroupIndex groupIndex = groupIndexes.get(repository.getUid());
+    if(groupIndex == null) {
+      groupIndex = new GroupIndex(context.getAllGroups());
+      groupIndexes.put(repository.getUid(), groupIndex);
+    }
+    return groupIndex;
+  }
+
   /** for unit tests */
   public IndexedArtifactGroup[] getRootIndexedArtifactGroups(IRepository repository) throws CoreException {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+    indexLock.lock();
+    try {
       IndexingContext context = getIndexingContext(repository);
       if(context != null) {
         try {
@@ -680,6 +950,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         }
       }
       return new IndexedArtifactGroup[0];
+    } finally {
+      indexLock.unlock();
     }
   }
 
@@ -742,32 +1014,96 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
     /*
-     * This method is called while holding workspace lock. Avoid long-running operations if possible. 
+     * Changes are only queued here and applied to the workspace index in one batch by the index updater job, so this
+     * listener does not need workspace lock.
      */
+    synchronized(pendingWorkspaceChanges) {
+      boolean schedule = pendingWorkspaceChanges.isEmpty();
+      for(MavenProjectChangedEvent event : events) {
+        File pomFile = event.getMavenProject() != null ? event.getMavenProject().getPomFile() : event
+            .getOldMavenProject().getPomFile();
+        WorkspaceIndexChange change = pendingWorkspaceChanges.get(pomFile);
+        if(change == null) {
+          pendingWorkspaceChanges.put(pomFile, new WorkspaceIndexChange(event.getOldMavenProject(),
+              event.getMavenProject()));
+        } else {
+          // keep the facade indexed before the first queued change
+          change.facade = event.getMavenProject();
+        }
+      }
+      if(schedule && !pendingWorkspaceChanges.isEmpty()) {
+        updaterJob.addCommand(repositoryRegistry.getWorkspaceRepository(), "changes", //$NON-NLS-1$
+            IndexUpdaterJob.PRIORITY_INTERACTIVE, new IndexUpdaterJob.IndexCommand() {
+              public void run(IProgressMonitor monitor) {
+                updateWorkspaceIndex();
+              }
+            });
+        updaterJob.schedule(WORKSPACE_UPDATE_DELAY);
+      }
+    }
+  }
 
-    synchronized(getIndexLock(repositoryRegistry.getWorkspaceRepository())) {
-      IndexingContext context = getIndexingContext(repositoryRegistry.getWorkspaceRepository());
+  /**
+   * Applies all queued workspace project changes to the workspace index with one index commit and notifies index
+   * listeners once.
+   */
+  void updateWorkspaceIndex() {
+    Collection<WorkspaceIndexChange> changes;
+    synchronized(pendingWorkspaceChanges) {
+      changes = new ArrayList<WorkspaceIndexChange>(pendingWorkspaceChanges.values());
+      pendingWorkspaceChanges.clear();
+    }
 
-      if(context != null) {
+    IRepository workspaceRepository = repositoryRegistry.getWorkspaceRepository();
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(workspaceRepository).writeLock();
+    indexLock.lock();
+    try {
+      IndexingContext context = getIndexingContext(workspaceRepository);
+      if(context == null) {
         // workspace indexing context can by null during startup due to MNGECLIPSE-1633
-        for(MavenProjectChangedEvent event : events) {
-          IMavenProjectFacade oldFacade = event.getOldMavenProject();
-          IMavenProjectFacade facade = event.getMavenProject();
-          if(oldFacade != null) {
-            if(facade != null) {
-              addDocument(repositoryRegistry.getWorkspaceRepository(), facade.getPomFile(), facade.getArtifactKey());
-              fireIndexChanged(repositoryRegistry.getWorkspaceRepository());
-            } else {
-              removeDocument(repositoryRegistry.getWorkspaceRepository(), oldFacade.getPomFile(),
-                  oldFacade.getArtifactKey(), oldFacade);
-              fireIndexRemoved(repositoryRegistry.getWorkspaceRepository());
-            }
-          } else if(facade != null) {
-            addDocument(repositoryRegistry.getWorkspaceRepository(), facade.getPomFile(), facade.getArtifactKey());
-            fireIndexAdded(repositoryRegistry.getWorkspaceRepository());
+        return;
+      }
+      List<ArtifactContext> removed = new ArrayList<ArtifactContext>();
+      List<ArtifactContext> added = new ArrayList<ArtifactContext>();
+      for(WorkspaceIndexChange change : changes) {
+        try {
+          if(change.oldFacade != null
+              && (change.facade == null || !change.oldFacade.getArtifactKey().equals(change.facade.getArtifactKey()))) {
+            removed.add(getWorkspaceArtifactContext(change.oldFacade, context));
+          }
+          if(change.facade != null) {
+            added.add(getWorkspaceArtifactContext(change.facade, context));
           }
+        } catch(CoreException ex) {
+          log.error(ex.getMessage(), ex);
         }
       }
+      if(!removed.isEmpty()) {
+        getIndexer().deleteArtifactsFromIndex(removed, context);
+      }
+      if(!added.isEmpty()) {
+        getIndexer().addArtifactsToIndex(added, context);
+      }
+    } catch(IOException ex) {
+      log.error("Unable to update " + workspaceRepository.toString(), ex);
+    } finally {
+      indexLock.unlock();
+    }
+
+    fireIndexChanged(workspaceRepository);
+  }
+
+  /**
+   * Workspace project change that has not been applied to the workspace index yet.
+   */
+  private static class WorkspaceIndexChange {
+    final IMavenProjectFacade oldFacade;
+
+    IMavenProjectFacade facade;
+
+    WorkspaceIndexChange(IMavenProjectFacade oldFacade, IMavenProjectFacade facade) {
+      this.oldFacade = oldFacade;
+      this.facade = facade;
     }
   }
 
@@ -776,11 +1112,18 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   public NexusIndex getLocalIndex() {
+    if(localIndex != null) {
+      return localIndex;
+    }
     IRepository localRepository = repositoryRegistry.getLocalRepository();
-    synchronized(getIndexLock(localRepository)) {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(localRepository).writeLock();
+    indexLock.lock();
+    try {
       if(localIndex == null) {
         localIndex = newLocalIndex(localRepository);
       }
+    } finally {
+      indexLock.unlock();
     }
     return localIndex;
   }
@@ -915,7 +1258,9 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       details = defaultDetails;
     }
 
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
       IndexingContext indexingContext = getIndexingContext(repository);
 
       try {
@@ -947,9 +1292,11 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       }
 
       if(repository.isScope(IRepositoryRegistry.SCOPE_LOCAL)) {
-        // note that we are still synchronized on repository lock at this point
+        // note that we are still holding repository write lock at this point
         this.localIndex = newLocalIndex(repositoryRegistry.getLocalRepository());
       }
+    } finally {
+      indexLock.unlock();
     }
   }
 
@@ -980,7 +1327,9 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   public void repositoryRemoved(IRepository repository, IProgressMonitor monitor) {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
       try {
         IndexingContext context = getIndexingContext(repository);
         if(context == null) {
@@ -991,12 +1340,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         String msg = "Unable to delete files for index";
         log.error(msg, ie);
       }
+    } finally {
+      indexLock.unlock();
     }
 
     fireIndexRemoved(repository);
   }
 
   protected void fireIndexAdded(IRepository repository) {
+    groupIndexes.remove(repository.getUid());
     synchronized(indexListeners) {
       for(IndexListener listener : indexListeners) {
         listener.indexAdded(repository);
@@ -1009,6 +1361,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       if(repository != null) {
         //since workspace index can be null at startup, guard against nulls
         updatingIndexes.remove(repository.getUid());
+        groupIndexes.remove(repository.getUid());
       }
     }
     synchronized(indexListeners) {
@@ -1045,6 +1398,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     synchronized(updatingIndexes) {
       updatingIndexes.remove(repository.getUid());
     }
+    groupIndexes.remove(repository.getUid());
     synchronized(indexListeners) {
       for(IndexListener listener : indexListeners) {
         listener.indexChanged(repository);
@@ -1068,36 +1422,46 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   //Public for testing purpose.
   public void updateIndex(IRepository repository, boolean force, IProgressMonitor monitor) throws CoreException {
-    synchronized(getIndexLock(repository)) {
-      if(repository.isScope(IRepositoryRegistry.SCOPE_WORKSPACE)) {
-        reindexWorkspace(force, monitor);
-      } else {
-        IndexingContext context = getIndexingContext(repository);
-        if(context != null) {
-          if(context.getRepository() != null) {
-            reindexLocalRepository(repository, force, monitor);
-          } else {
-            if(!force) {
-              //if 'force' is not set, then only do the remote update if this value is set
-              IMavenConfiguration mavenConfig = MavenPlugin.getMavenConfiguration();
-              if(mavenConfig.isUpdateIndexesOnStartup()) {
-                updateRemoteIndex(repository, force, monitor);
-              }
-            } else {
+    if(!repository.isScope(IRepositoryRegistry.SCOPE_WORKSPACE) && repository.getBasedir() != null) {
+      // local repository index stays searchable while it is updated, see #reindexLocalRepository
+      reindexLocalRepository(repository, force, monitor);
+    }
+    if(!repository.isScope(IRepositoryRegistry.SCOPE_WORKSPACE)) {
+      // remote index stays searchable while it is fetched and rebuilt, see #updateRemoteIndex
+      IndexingContext context = getIndexingContext(repository);
+      if(context != null) {
+        if(context.getRepository() == null) {
+          if(!force) {
+            //if 'force' is not set, then only do the remote update if this value is set
+            IMavenConfiguration mavenConfig = MavenPlugin.getMavenConfiguration();
+            if(mavenConfig.isUpdateIndexesOnStartup()) {
               updateRemoteIndex(repository, force, monitor);
             }
+          } else {
+            updateRemoteIndex(repository, force, monitor);
           }
         }
       }
+    }
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
+      if(repository.isScope(IRepositoryRegistry.SCOPE_WORKSPACE)) {
+        reindexWorkspace(force, monitor);
+      }
       IndexingContext context = getIndexingContext(repository);
       if(context != null) {
         context.setSearchable(true);
       }
+    } finally {
+      indexLock.unlock();
     }
   }
 
-  /*
-   * Callers must hold repository access synchronisation lock 
+  /**
+   * Fetches and rebuilds the remote repository index without holding the repository lock, searches keep using the
+   * current index meanwhile. The write lock is only taken to swap in the rebuilt index or to apply incremental chunks
+   * that were already downloaded to the local cache. Callers must not hold the repository read lock.
    */
   private void updateRemoteIndex(IRepository repository, boolean force, IProgressMonitor monitor) {
     if(repository == null) {
@@ -1139,20 +1503,27 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
             request.setOffline(true);
             indexUpdater.fetchAndUpdateIndex(request);
 
-            // 2. copy cached/shared (this is not very elegant, oh well)
-            getIndexer().removeIndexingContext(context, true); // nuke workspace index files
             getIndexer().removeIndexingContext(cacheCtx, false); // keep the cache!
-            FileUtils.cleanDirectory(context.getIndexDirectoryFile());
-            FileUtils.copyDirectory(luceneCache, context.getIndexDirectoryFile()); // copy cached lucene index
-            context = createIndexingContext(repository, details); // re-create indexing context
 
-            updated = true;
+            // 2. share cached lucene index files with workspace index
+            updated = replaceRemoteIndex(repository, context, details, luceneCache);
           } else {
-            // incremental change
-            request = newIndexUpdateRequest(repository, context, monitor);
-            request.setOffline(true); // local cache is already uptodate, no need to
-            result = indexUpdater.fetchAndUpdateIndex(request);
-            updated = result.getTimestamp() != null;
+            // incremental change, chunks are already in the local cache and applied quickly
+            ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+            indexLock.lock();
+            try {
+              if(getIndexingContext(repository) != context) {
+                // index was disabled or recreated meanwhile
+                updated = false;
+              } else {
+                request = newIndexUpdateRequest(repository, context, monitor);
+                request.setOffline(true); // local cache is already uptodate, no need to
+                result = indexUpdater.fetchAndUpdateIndex(request);
+                updated = result.getTimestamp() != null;
+              }
+            } finally {
+              indexLock.unlock();
+            }
           }
 
           if(updated) {
@@ -1173,6 +1544,62 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       log.error(msg, ie);
     } finally {
       fireIndexChanged(repository);
+      log.debug("Index search result cache: {}", getSearchCacheStats()); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Replaces files of the repository index with the rebuilt lucene index cache while holding the repository write lock.
+   * Returns <code>false</code> if the repository index was disabled or recreated while the cache was rebuilt.
+   */
+  private boolean replaceRemoteIndex(IRepository repository, IndexingContext context, String details, File luceneCache)
+      throws IOException {
+    ReentrantReadWriteLock.WriteLock indexLock = getIndexLock(repository).writeLock();
+    indexLock.lock();
+    try {
+      if(getIndexingContext(repository) != context) {
+        return false;
+      }
+      getIndexer().removeIndexingContext(context, true); // nuke workspace index files
+      FileUtils.cleanDirectory(context.getIndexDirectoryFile());
+      linkDirectory(luceneCache, context.getIndexDirectoryFile());
+      createIndexingContext(repository, details).setSearchable(true); // re-create indexing context
+      return true;
+    } finally {
+      indexLock.unlock();
+    }
+  }
+
+  /**
+   * Hard links files of the source directory into the target directory, or copies them if the file system does not
+   * support hard links between the directories. Lucene never modifies existing index files, it always writes new files
+   * and deletes obsolete ones, so linked files can be safely shared between the cached index and workspace indexes.
+   */
+  static void linkDirectory(File source, File target) throws IOException {
+    File[] files = source.listFiles();
+    if(files == null) {
+      throw new FileNotFoundException(source.getAbsolutePath());
+    }
+    target.mkdirs();
+    boolean link = true;
+    for(File file : files) {
+      if(!file.isFile()) {
+        continue;
+      }
+      Path to = new File(target, file.getName()).toPath();
+      if(link) {
+        try {
+          Files.createLink(to, file.toPath());
+          continue;
+        } catch(UnsupportedOperationException ex) {
+          link = false;
+        } catch(IOException ex) {
+          // different file stores, file system without hard link support, etc
+          log.debug("Could not link {}, copying index files instead: {}", file, ex.getMessage());
+          link = false;
+        }
+      }
+      Files.copy(file.toPath(), to, StandardCopyOption.REPLACE_EXISTING);
     }
   }
 
@@ -1233,72 +1660,124 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     return updaterJob;
   }
 
+  /**
+   * Returns number of index commands waiting to be executed, not including running commands.
+   *
+   * @since 1.7
+   */
+  public int getIndexUpdateQueueSize() {
+    return updaterJob.getQueueSize();
+  }
+
+  /**
+   * Returns wait and execution times of the recently executed index commands, oldest first.
+   *
+   * @since 1.7
+   */
+  public List<IndexCommandTiming> getIndexCommandTimings() {
+    return updaterJob.getCommandTimings();
+  }
+
   public String getIndexerId() {
     return Messages.NexusIndexManager_78;
   }
 
-  private Object getIndexLock(IRepository repository) {
+  /**
+   * Returns read/write lock of the repository index. Searches only read the index and hold the read lock, so they can
+   * run concurrently. Index updates and indexing context changes hold the write lock. Read lock holders must never try
+   * to acquire the write lock.
+   */
+  private ReentrantReadWriteLock getIndexLock(IRepository repository) {
     if(repository == null) {
-      return new Object();
+      return new ReentrantReadWriteLock();
     }
     // NOTE: We ultimately want to prevent concurrent access to the IndexingContext so we sync on the repo UID and not on the repo instance.
     synchronized(indexLocks) {
-      Object lock = indexLocks.get(repository.getUid());
+      ReentrantReadWriteLock lock = indexLocks.get(repository.getUid());
       if(lock == null) {
-        lock = new Object();
+        lock = new ReentrantReadWriteLock();
         indexLocks.put(repository.getUid(), lock);
       }
       return lock;
     }
   }
 
-  /// REMOVE THIS BELOW ONCE Maven Indexer upgraded to 3.2.0-SNAPSHOT
-  /// In that moment this code becomes duplicated and already in place, this method added
+  /**
+   * Returns read lock of the repository index. Lets composite searches skip indexes that are being updated instead of
+   * waiting for the update to finish.
+   */
+  ReentrantReadWriteLock.ReadLock getReadLock(IRepository repository) {
+    return getIndexLock(repository).readLock();
+  }
 
   protected ArtifactInfo identify(File artifact, Collection<IndexingContext> contexts) throws IOException {
+    return identify(getChecksumCache().getSha1(artifact), contexts);
+  }
 
-    FileInputStream is = null;
+  private ArtifactInfo identify(String sha1, Collection<IndexingContext> contexts) throws IOException {
+    Query q = getIndexer().constructQuery(MAVEN.SHA1, sha1, SearchType.EXACT);
+    return getIndexer().identify(q, contexts);
+  }
 
+  /**
+   * Identifies the files in the repository index. Checksums of the files are calculated in parallel.
+   * 
+   * @return map of identified files to their index entries, files that were not found in the index are not included
+   * @since 1.7
+   */
+  protected Map<File, IndexedArtifactFile> identify(IRepository repository, List<File> files) throws CoreException {
+    Map<File, IndexedArtifactFile> result = new LinkedHashMap<File, IndexedArtifactFile>();
     try {
-      MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
-
-      is = new FileInputStream(artifact);
-
-      byte[] buff = new byte[4096];
-
-      int n;
-
-      while((n = is.read(buff)) > -1) {
-        sha1.update(buff, 0, n);
+      if(getIndexingContext(repository) == null) {
+        return result;
       }
-
-      byte[] digest = sha1.digest();
-
-      Query q = getIndexer().constructQuery(MAVEN.SHA1, encode(digest), SearchType.EXACT);
-
-      return getIndexer().identify(q, contexts);
-
-    } catch(NoSuchAlgorithmException ex) {
-      throw new IOException("Unable to calculate digest");
-    } finally {
-      IOUtil.close(is);
+      // checksums are calculated before the index is locked
+      List<String> checksums = getChecksumCache().getSha1(files);
+      ReentrantReadWriteLock.ReadLock indexLock = getIndexLock(repository).readLock();
+      indexLock.lock();
+      try {
+        IndexingContext context = getIndexingContext(repository);
+        if(context == null) {
+          return result;
+        }
+        for(int i = 0; i < files.size(); i++ ) {
+          ArtifactInfo artifactInfo = identify(checksums.get(i), Collections.singleton(context));
+          if(artifactInfo != null) {
+            result.put(files.get(i), getIndexedArtifactFile(artifactInfo));
+          }
+        }
+      } finally {
+        indexLock.unlock();
+      }
+      return result;
+    } catch(IOException ex) {
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+          Messages.NexusIndexManager_error_search, ex));
     }
-
   }
 
-  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
-
-  private static String encode(byte[] digest) {
-    char[] buff = new char[digest.length * 2];
-
-    int n = 0;
-
-    for(byte b : digest) {
-      buff[n++ ] = DIGITS[(0xF0 & b) >> 4];
-      buff[n++ ] = DIGITS[0x0F & b];
+  private synchronized ChecksumCache getChecksumCache() {
+    if(checksumCache == null) {
+      IRepository localRepository = repositoryRegistry.getLocalRepository();
+      checksumCache = new ChecksumCache(new File(baseIndexDir, "checksums.properties"), //$NON-NLS-1$
+          localRepository != null ? localRepository.getBasedir() : null);
     }
+    return checksumCache;
+  }
 
-    return new String(buff);
+  /**
+   * Persists cached artifact file checksums.
+   * 
+   * @since 1.7
+   */
+  public void writeChecksumCache() {
+    ChecksumCache cache;
+    synchronized(this) {
+      cache = checksumCache;
+    }
+    if(cache != null) {
+      cache.save();
+    }
   }
 
   /**
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index.nexus;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import org.eclipse.m2e.core.internal.index.IndexListener;
+import org.eclipse.m2e.core.internal.index.IndexSearchResult;
+import org.eclipse.m2e.core.internal.index.IndexedArtifact;
+import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
+import org.eclipse.m2e.core.internal.index.MatchTyped;
+import org.eclipse.m2e.core.internal.index.SearchExpression;
+import org.eclipse.m2e.core.repository.IRepository;
+
+
+/**
+ * Least recently used cache of index search results. Results of a repository are evicted when the repository index is
+ * added, changed or removed. Results of searches across all repositories are evicted on any index change.
+ *
+ * @since 1.7
+ */
+class SearchResultCache implements IndexListener {
+
+  private static final int MAX_ENTRIES = 200;
+
+  /**
+   * Repository key of searches across all repositories.
+   */
+  private static final String ALL_REPOSITORIES = "*"; //$NON-NLS-1$
+
+  private final Cache<Key, IndexSearchResult> cache = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES)
+      .recordStats().build();
+
+  /**
+   * Incremented on every eviction, results of searches that started before an eviction are not cached.
+   */
+  private final AtomicLong generation = new AtomicLong();
+
+  static class Key {
+    final String repository;
+
+    final String query;
+
+    Key(String repository, String query) {
+      this.repository = repository;
+      this.query = query;
+    }
+
+    public int hashCode() {
+      return repository.hashCode() * 31 + query.hashCode();
+    }
+
+    public boolean equals(Object obj) {
+      if(this == obj) {
+        return true;
+      }
+      if(!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return repository.equals(other.repository) && query.equals(other.query);
+    }
+  }
+
+  public Key getKey(IRepository repository, SearchExpression term, String type, int classifier, int maxResults) {
+    StringBuilder query = new StringBuilder();
+    query.append(type).append('|').append(classifier).append('|').append(maxResults).append('|');
+    if(term instanceof MatchTyped) {
+      query.append(((MatchTyped) term).getMatchType());
+    }
+    query.append('|').append(term != null ? term.getStringValue() : null);
+    return new Key(repository != null ? repository.getUid() : ALL_REPOSITORIES, query.toString());
+  }
+
+  /**
+   * Returns copy of the cached search result, or {@code null}.
+   */
+  public IndexSearchResult get(Key key) {
+    IndexSearchResult result = cache.getIfPresent(key);
+    return result != null ? copy(result) : null;
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches copy of the search result, unless the index changed since the given generation.
+   */
+  public void put(Key key, IndexSearchResult result, long generation) {
+    IndexSearchResult copy = copy(result);
+    synchronized(this) {
+      if(generation == this.generation.get()) {
+        cache.put(key, copy);
+      }
+    }
+  }
+
+  public synchronized void invalidate(IRepository repository) {
+    generation.incrementAndGet();
+    Iterator<Key> keys = cache.asMap().keySet().iterator();
+    while(keys.hasNext()) {
+      Key key = keys.next();
+      if(ALL_REPOSITORIES.equals(key.repository) || repository == null || key.repository.equals(repository.getUid())) {
+        keys.remove();
+      }
+    }
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  /**
+   * Callers may modify returned artifacts, cached artifacts are never handed out.
+   */
+  private static IndexSearchResult copy(IndexSearchResult result) {
+    Map<String, IndexedArtifact> copy = new TreeMap<String, IndexedArtifact>();
+    for(Map.Entry<String, IndexedArtifact> entry : result.getArtifacts().entrySet()) {
+      IndexedArtifact artifact = entry.getValue();
+      IndexedArtifact artifactCopy = new IndexedArtifact(artifact.getGroupId(), artifact.getArtifactId(),
+          artifact.getPackageName(), artifact.getClassname(), artifact.getPackaging());
+      for(IndexedArtifactFile file : artifact.getFiles()) {
+        artifactCopy.addFile(file);
+      }
+      copy.put(entry.getKey(), artifactCopy);
+    }
+    return new IndexSearchResult(copy, result.isTruncated());
+  }
+
+  public void indexAdded(IRepository repository) {
+    invalidate(repository);
+  }
+
+  public void indexRemoved(IRepository repository) {
+    invalidate(repository);
+  }
+
+  public void indexChanged(IRepository repository) {
+    invalidate(repository);
+  }
+
+  public void indexUpdating(IRepository repository) {
+  }
+}
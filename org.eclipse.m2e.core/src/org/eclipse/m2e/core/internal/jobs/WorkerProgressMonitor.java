@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.jobs;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+
+/**
+ * Progress monitor shared by concurrent worker threads of a job. Only cancellation and subtask names are forwarded to
+ * the wrapped monitor, serialized because progress monitors are not thread-safe. Work is reported by the thread that
+ * owns the wrapped monitor.
+ *
+ * @since 1.7
+ */
+public class WorkerProgressMonitor extends ProgressMonitorWrapper {
+
+  public WorkerProgressMonitor(IProgressMonitor monitor) {
+    super(monitor);
+  }
+
+  public void beginTask(String name, int totalWork) {
+  }
+
+  public void done() {
+  }
+
+  public void internalWorked(double work) {
+  }
+
+  public void worked(int work) {
+  }
+
+  public void setTaskName(String name) {
+  }
+
+  public synchronized void subTask(String name) {
+    super.subTask(name);
+  }
+
+  public synchronized boolean isCanceled() {
+    return super.isCanceled();
+  }
+
+  public synchronized void setCanceled(boolean value) {
+    super.setCanceled(value);
+  }
+}
@@ -323,4 +323,57 @@ public class MavenConfigurationImpl implements IMavenConfiguration, IPreferenceC
   public void setAutomaticallyUpdateConfiguration(boolean value) {
     preferencesLookup[0].putBoolean(MavenPreferenceConstants.P_AUTO_UPDATE_CONFIGURATION, value);
   }
+
+  @Override
+  public int getRefreshParallelism() {
+    return getInt(MavenPreferenceConstants.P_REFRESH_PARALLELISM, 1);
+  }
+
+  public void setRefreshParallelism(int parallelism) {
+    preferencesLookup[0].putInt(MavenPreferenceConstants.P_REFRESH_PARALLELISM, parallelism);
+  }
+
+  @Override
+  public String getProjectCachePolicy() {
+    return ProjectCachePolicy.get(preferenceStore.get(MavenPreferenceConstants.P_PROJECT_CACHE_POLICY, null,
+        preferencesLookup)).toString();
+  }
+
+  @Override
+  public int getProjectCacheSize() {
+    return getInt(MavenPreferenceConstants.P_PROJECT_CACHE_SIZE, MavenPreferenceInitializer.DEFAULT_PROJECT_CACHE_SIZE);
+  }
+
+  @Override
+  public long getProjectCacheWeight() {
+    return getLong(MavenPreferenceConstants.P_PROJECT_CACHE_WEIGHT,
+        MavenPreferenceInitializer.DEFAULT_PROJECT_CACHE_WEIGHT);
+  }
+
+  @Override
+  public int getRealmCacheSize() {
+    return getInt(MavenPreferenceConstants.P_REALM_CACHE_SIZE, MavenPreferenceInitializer.DEFAULT_REALM_CACHE_SIZE);
+  }
+
+  @Override
+  public int getRealmCacheTimeout() {
+    return getInt(MavenPreferenceConstants.P_REALM_CACHE_TIMEOUT,
+        MavenPreferenceInitializer.DEFAULT_REALM_CACHE_TIMEOUT);
+  }
+
+  private int getInt(String key, int defaultValue) {
+    return (int) getLong(key, defaultValue);
+  }
+
+  private long getLong(String key, long defaultValue) {
+    String value = preferenceStore.get(key, null, preferencesLookup);
+    if(value != null) {
+      try {
+        return Long.parseLong(value.trim());
+      } catch(NumberFormatException ex) {
+        log.warn("Invalid value of preference {}: {}", key, value);
+      }
+    }
+    return defaultValue;
+  }
 }
@@ -166,4 +166,48 @@ public interface MavenPreferenceConstants {
    **/
   public static final String P_AUTO_UPDATE_CONFIGURATION = PREFIX + "autoUpdateProjects"; //$NON-NLS-1$
 
+  /**
+   * int, maximum number of projects resolved concurrently during the second phase of project registry refresh. Values
+   * less than 2 mean projects are resolved one at a time.
+   *
+   * @since 1.7
+   **/
+  public static final String P_REFRESH_PARALLELISM = PREFIX + "refreshParallelism"; //$NON-NLS-1$
+
+  /**
+   * Valid values : size, weight or soft, see {@link ProjectCachePolicy}
+   *
+   * @since 1.7
+   **/
+  public static final String P_PROJECT_CACHE_POLICY = PREFIX + "projectCachePolicy"; //$NON-NLS-1$
+
+  /**
+   * int, maximum number of cached MavenProject instances when using <code>size</code> project cache policy
+   *
+   * @since 1.7
+   **/
+  public static final String P_PROJECT_CACHE_SIZE = PREFIX + "projectCacheSize"; //$NON-NLS-1$
+
+  /**
+   * long, maximum total weight of cached MavenProject instances when using <code>weight</code> project cache policy
+   *
+   * @since 1.7
+   **/
+  public static final String P_PROJECT_CACHE_WEIGHT = PREFIX + "projectCacheWeight"; //$NON-NLS-1$
+
+  /**
+   * int, maximum number of plugin and extension class realms kept after no project uses them anymore
+   *
+   * @since 1.7
+   **/
+  public static final String P_REALM_CACHE_SIZE = PREFIX + "realmCacheSize"; //$NON-NLS-1$
+
+  /**
+   * int, seconds plugin and extension class realms are kept after no project uses them anymore. Expired realms are
+   * disposed the next time a project is refreshed or removed.
+   *
+   * @since 1.7
+   **/
+  public static final String P_REALM_CACHE_TIMEOUT = PREFIX + "realmCacheTimeout"; //$NON-NLS-1$
+
 }
@@ -25,6 +25,14 @@ import org.eclipse.m2e.core.internal.IMavenConstants;
  */
 public class MavenPreferenceInitializer extends AbstractPreferenceInitializer {
 
+  public static final int DEFAULT_PROJECT_CACHE_SIZE = 5;
+
+  public static final long DEFAULT_PROJECT_CACHE_WEIGHT = 20000L;
+
+  public static final int DEFAULT_REALM_CACHE_SIZE = 20;
+
+  public static final int DEFAULT_REALM_CACHE_TIMEOUT = 600;
+
   @Override
   public void initializeDefaultPreferences() {
     IEclipsePreferences store = DefaultScope.INSTANCE.getNode(IMavenConstants.PLUGIN_ID);
@@ -61,5 +69,14 @@ public class MavenPreferenceInitializer extends AbstractPreferenceInitializer {
 
     //Setting to false until bug #462898 is fixed
     store.putBoolean(MavenPreferenceConstants.P_AUTO_UPDATE_CONFIGURATION, false);
+
+    store.putInt(MavenPreferenceConstants.P_REFRESH_PARALLELISM, 1);
+
+    store.put(MavenPreferenceConstants.P_PROJECT_CACHE_POLICY, ProjectCachePolicy.size.toString());
+    store.putInt(MavenPreferenceConstants.P_PROJECT_CACHE_SIZE, DEFAULT_PROJECT_CACHE_SIZE);
+    store.putLong(MavenPreferenceConstants.P_PROJECT_CACHE_WEIGHT, DEFAULT_PROJECT_CACHE_WEIGHT);
+
+    store.putInt(MavenPreferenceConstants.P_REALM_CACHE_SIZE, DEFAULT_REALM_CACHE_SIZE);
+    store.putInt(MavenPreferenceConstants.P_REALM_CACHE_TIMEOUT, DEFAULT_REALM_CACHE_TIMEOUT);
   }
 }
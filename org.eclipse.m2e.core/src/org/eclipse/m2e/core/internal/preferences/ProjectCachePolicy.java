@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.preferences;
+
+/**
+ * Eviction policy of the MavenProject cache.
+ * <ul>
+ * <li><code>size</code>, the cache keeps up to {@link MavenPreferenceConstants#P_PROJECT_CACHE_SIZE} projects</li>
+ * <li><code>weight</code>, the cache keeps projects up to {@link MavenPreferenceConstants#P_PROJECT_CACHE_WEIGHT}
+ * total estimated weight, each project weighs one unit plus one unit per resolved artifact, dependency and build
+ * plugin</li>
+ * <li><code>soft</code>, cached projects are softly referenced and are discarded when memory runs low</li>
+ * </ul>
+ *
+ * @since 1.7
+ */
+public enum ProjectCachePolicy {
+
+  size, weight, soft;
+
+  public static ProjectCachePolicy get(String value) {
+    try {
+      if(value != null) {
+        return ProjectCachePolicy.valueOf(value);
+      }
+    } catch(IllegalArgumentException iae) {
+    }
+    return ProjectCachePolicy.size;
+  }
+}
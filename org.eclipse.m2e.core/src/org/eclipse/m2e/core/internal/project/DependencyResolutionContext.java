@@ -39,6 +39,13 @@ public class DependencyResolutionContext {
     this.pomFiles.addAll(pomFiles);
   }
 
+  /**
+   * Returns the next pom file to resolve without removing it from this context.
+   */
+  public synchronized IFile peek() {
+    return pomFiles.iterator().next();
+  }
+
   public synchronized IFile pop() {
     Iterator<IFile> i = pomFiles.iterator();
     IFile pom = i.next();
@@ -12,11 +12,17 @@
 package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Singleton;
 
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.DefaultExtensionRealmCache;
+import org.apache.maven.project.ExtensionDescriptor;
 import org.apache.maven.project.MavenProject;
 
 import org.eclipse.m2e.core.embedder.ArtifactKey;
@@ -29,16 +35,55 @@ import org.eclipse.m2e.core.embedder.ArtifactKey;
 @SuppressWarnings("synthetic-access")
 public class EclipseExtensionRealmCache extends DefaultExtensionRealmCache implements IManagedCache {
 
-  private final ProjectCachePlunger<Key> plunger = new ProjectCachePlunger<Key>() {
+  private final RealmCacheStatistics statistics = new RealmCacheStatistics();
+
+  private final ProjectCachePlunger<Key> plunger = new ProjectCachePlunger<Key>(true) {
     @Override
     protected void flush(Key cacheKey) {
       CacheRecord cacheRecord = cache.remove(cacheKey);
       if(cacheRecord != null) {
         disposeClassRealm(cacheRecord.realm);
+        statistics.disposed();
       }
     }
+
+    @Override
+    protected void registered(Key cacheKey, boolean reused) {
+      statistics.registered(cacheKey, reused);
+    }
+
+    @Override
+    protected boolean isRetainable(Key cacheKey) {
+      // the key covers jar files, but not the contents of workspace project output folders
+      CacheRecord cacheRecord = cache.get(cacheKey);
+      return cacheRecord != null && isImmutable(cacheRecord.artifacts);
+    }
   };
 
+  @Override
+  public CacheRecord get(Key key) {
+    CacheRecord record;
+    synchronized(plunger) {
+      // concurrent project removal must not dispose the realm before the project using it is registered
+      record = super.get(key);
+      if(record != null) {
+        plunger.pin(key);
+      }
+    }
+    statistics.lookup(key, record != null);
+    return record;
+  }
+
+  @Override
+  public CacheRecord put(Key key, ClassRealm extensionRealm, ExtensionDescriptor extensionDescriptor,
+      List<Artifact> artifacts) {
+    synchronized(plunger) {
+      CacheRecord record = super.put(key, extensionRealm, extensionDescriptor, artifacts);
+      plunger.pin(key);
+      return record;
+    }
+  }
+
   @Override
   public void register(MavenProject project, Key key, CacheRecord record) {
     plunger.register(project, key);
@@ -54,4 +99,16 @@ public class EclipseExtensionRealmCache extends DefaultExtensionRealmCache imple
     super.flush();
     plunger.flush();
   }
+
+  /**
+   * @since 1.7
+   */
+  public RealmCacheStatistics getStatistics() {
+    List<ClassRealm> realms = new ArrayList<ClassRealm>();
+    for(CacheRecord record : cache.values()) {
+      realms.add(record.realm);
+    }
+    statistics.update(realms);
+    return statistics;
+  }
 }
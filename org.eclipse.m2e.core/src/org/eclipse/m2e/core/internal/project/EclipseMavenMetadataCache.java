@@ -13,13 +13,18 @@ package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Singleton;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.metadata.ResolutionGroup;
 import org.apache.maven.artifact.repository.ArtifactRepository;
@@ -31,11 +36,22 @@ import org.eclipse.m2e.core.embedder.ArtifactKey;
 
 /**
  * EclipseMavenMetadataCache
+ * <p>
+ * Keeps reverse index of cache keys by GAbV of the artifacts referenced from cache records, so project removal only
+ * visits affected cache entries.
  * 
  * @author igor
  */
 @Singleton
 public class EclipseMavenMetadataCache extends DefaultMavenMetadataCache implements MavenMetadataCache, IManagedCache {
+  private static final Logger log = LoggerFactory.getLogger(EclipseMavenMetadataCache.class);
+
+  /**
+   * Maps GAbV (bV==baseVersion) to keys of the cache records that reference the artifact. Guarded by itself.
+   */
+  private final Map<ArtifactKey, Set<CacheKey>> keysByArtifact = new HashMap<ArtifactKey, Set<CacheKey>>();
+
+  private final AtomicLong removedEntries = new AtomicLong();
 
   @Override
   public void put(Artifact artifact, boolean resolveManagedVersions, ArtifactRepository localRepository,
@@ -48,51 +64,133 @@ public class EclipseMavenMetadataCache extends DefaultMavenMetadataCache impleme
       removeProject(gav);
     }
 
-    super.put(artifact, resolveManagedVersions, localRepository, remoteRepositories, result);
+    CacheKey cacheKey = newCacheKey(artifact, resolveManagedVersions, localRepository, remoteRepositories);
+    // insert and index atomically, so concurrent removal can't miss the new record
+    synchronized(keysByArtifact) {
+      CacheRecord oldRecord = cache.get(cacheKey);
+      if(oldRecord != null) {
+        unindex(cacheKey, oldRecord);
+      }
+      super.put(artifact, resolveManagedVersions, localRepository, remoteRepositories, result);
+      CacheRecord record = cache.get(cacheKey);
+      if(record != null) {
+        for(ArtifactKey key : getArtifactKeys(record)) {
+          Set<CacheKey> keys = keysByArtifact.get(key);
+          if(keys == null) {
+            keys = new HashSet<CacheKey>();
+            keysByArtifact.put(key, keys);
+          }
+          keys.add(cacheKey);
+        }
+      }
+    }
+  }
+
+  @Override
+  public ResolutionGroup get(Artifact artifact, boolean resolveManagedVersions, ArtifactRepository localRepository,
+      List<ArtifactRepository> remoteRepositories) {
+    CacheKey cacheKey = newCacheKey(artifact, resolveManagedVersions, localRepository, remoteRepositories);
+    CacheRecord record = cache.get(cacheKey);
+    ResolutionGroup result = super.get(artifact, resolveManagedVersions, localRepository, remoteRepositories);
+    if(result == null && record != null) {
+      // the superclass dropped stale record, unless it was replaced concurrently
+      synchronized(keysByArtifact) {
+        if(cache.get(cacheKey) == null) {
+          unindex(cacheKey, record);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void flush() {
+    synchronized(keysByArtifact) {
+      super.flush();
+      keysByArtifact.clear();
+    }
   }
 
   @Override
   public Set<File> removeProject(File pom, ArtifactKey key, boolean force) {
-    removeProject(key);
+    int count = removeProject(key);
+    if(count > 0) {
+      log.debug("Removed {} metadata cache entries of {}", count, key); //$NON-NLS-1$
+    }
     return Collections.emptySet();
   }
 
-  private void removeProject(ArtifactKey key) {
+  /**
+   * Returns number of cache entries removed because the projects they reference changed since the previous call, and
+   * starts counting from zero again.
+   * 
+   * @since 1.7
+   */
+  public long resetRemovedEntries() {
+    return removedEntries.getAndSet(0);
+  }
+
+  private int removeProject(ArtifactKey key) {
     if(key == null) {
-      return;
+      return 0;
     }
 
-    Iterator<Entry<CacheKey, CacheRecord>> iter = cache.entrySet().iterator();
-
-    while(iter.hasNext()) {
-      Entry<CacheKey, CacheRecord> entry = iter.next();
-      CacheRecord record = entry.getValue();
-
-      if(equals(record.getArtifact(), key) || contains(record.getArtifacts(), key)) {
-        iter.remove();
+    int count = 0;
+    synchronized(keysByArtifact) {
+      /*
+       * maybe too conservative, but purge anything that matches GAbV (bV==baseVersion)
+       */
+      Set<CacheKey> keys = keysByArtifact.remove(new ArtifactKey(key.getGroupId(), key.getArtifactId(),
+          key.getVersion(), null));
+      if(keys == null) {
+        return 0;
+      }
+      for(CacheKey cacheKey : keys) {
+        CacheRecord record = cache.remove(cacheKey);
+        if(record == null) {
+          // stale record removed by the superclass
+          continue;
+        }
+        count++ ;
+        // unregister the record from other artifacts it references
+        unindex(cacheKey, record);
       }
     }
+    removedEntries.addAndGet(count);
+    return count;
   }
 
-  private boolean contains(List<Artifact> artifacts, ArtifactKey key) {
-    for(Artifact artifact : artifacts) {
-      if(equals(artifact, key)) {
-        return true;
+  /**
+   * Removes the cache key from reverse index entries of all artifacts referenced by the record. Callers must hold
+   * {@link #keysByArtifact} monitor.
+   */
+  private void unindex(CacheKey cacheKey, CacheRecord record) {
+    for(ArtifactKey key : getArtifactKeys(record)) {
+      Set<CacheKey> keys = keysByArtifact.get(key);
+      if(keys != null) {
+        keys.remove(cacheKey);
+        if(keys.isEmpty()) {
+          keysByArtifact.remove(key);
+        }
       }
     }
-    return false;
   }
 
-  private boolean equals(Artifact artifact, ArtifactKey key) {
-    /*
-     * maybe too conservative, but purge anything that matches GAbV (bV==baseVersion)
-     */
-    return eq(key.getGroupId(), artifact.getGroupId()) //
-        && eq(key.getArtifactId(), artifact.getArtifactId()) //
-        && eq(key.getVersion(), artifact.getBaseVersion());
+  private static Set<ArtifactKey> getArtifactKeys(CacheRecord record) {
+    Set<ArtifactKey> keys = new HashSet<ArtifactKey>();
+    addArtifactKey(keys, record.getArtifact());
+    List<Artifact> artifacts = record.getArtifacts();
+    if(artifacts != null) {
+      for(Artifact artifact : artifacts) {
+        addArtifactKey(keys, artifact);
+      }
+    }
+    return keys;
   }
 
-  private static <T> boolean eq(T a, T b) {
-    return a != null ? a.equals(b) : b == null;
+  private static void addArtifactKey(Set<ArtifactKey> keys, Artifact artifact) {
+    if(artifact != null) {
+      keys.add(new ArtifactKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion(), null));
+    }
   }
 }
@@ -12,10 +12,15 @@
 package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import javax.inject.Singleton;
 
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.DefaultPluginRealmCache;
 import org.apache.maven.project.MavenProject;
 
@@ -29,15 +34,53 @@ import org.eclipse.m2e.core.embedder.ArtifactKey;
 @SuppressWarnings("synthetic-access")
 public class EclipsePluginRealmCache extends DefaultPluginRealmCache implements IManagedCache {
 
-  private final ProjectCachePlunger<Key> plunger = new ProjectCachePlunger<Key>() {
+  private final RealmCacheStatistics statistics = new RealmCacheStatistics();
+
+  private final ProjectCachePlunger<Key> plunger = new ProjectCachePlunger<Key>(true) {
     protected void flush(Key cacheKey) {
       CacheRecord cacheRecord = cache.remove(cacheKey);
       if(cacheRecord != null) {
         disposeClassRealm(cacheRecord.realm);
+        statistics.disposed();
       }
     }
+
+    @Override
+    protected void registered(Key cacheKey, boolean reused) {
+      statistics.registered(cacheKey, reused);
+    }
+
+    @Override
+    protected boolean isRetainable(Key cacheKey) {
+      // the key does not identify plugin artifact files, a rebuilt SNAPSHOT or workspace plugin must get a new realm
+      CacheRecord cacheRecord = cache.get(cacheKey);
+      return cacheRecord != null && isImmutable(cacheRecord.artifacts);
+    }
   };
 
+  @Override
+  public CacheRecord get(Key key) {
+    CacheRecord record;
+    synchronized(plunger) {
+      // concurrent project removal must not dispose the realm before the project using it is registered
+      record = super.get(key);
+      if(record != null) {
+        plunger.pin(key);
+      }
+    }
+    statistics.lookup(key, record != null);
+    return record;
+  }
+
+  @Override
+  public CacheRecord put(Key key, ClassRealm pluginRealm, List<Artifact> pluginArtifacts) {
+    synchronized(plunger) {
+      CacheRecord record = super.put(key, pluginRealm, pluginArtifacts);
+      plunger.pin(key);
+      return record;
+    }
+  }
+
   @Override
   public void register(MavenProject project, Key cacheKey, CacheRecord record) {
     plunger.register(project, cacheKey);
@@ -54,4 +97,15 @@ public class EclipsePluginRealmCache extends DefaultPluginRealmCache implements
     plunger.flush();
   }
 
+  /**
+   * @since 1.7
+   */
+  public RealmCacheStatistics getStatistics() {
+    List<ClassRealm> realms = new ArrayList<ClassRealm>();
+    for(CacheRecord record : cache.values()) {
+      realms.add(record.realm);
+    }
+    statistics.update(realms);
+    return statistics;
+  }
 }
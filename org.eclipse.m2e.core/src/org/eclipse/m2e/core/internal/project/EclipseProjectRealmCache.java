@@ -16,6 +16,10 @@ import java.util.Set;
 
 import javax.inject.Singleton;
 
+import org.eclipse.aether.graph.DependencyFilter;
+
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
 import org.apache.maven.project.DefaultProjectRealmCache;
 import org.apache.maven.project.MavenProject;
 
@@ -38,6 +42,27 @@ public class EclipseProjectRealmCache extends DefaultProjectRealmCache implement
     }
   };
 
+  @Override
+  public CacheRecord get(Key key) {
+    synchronized(plunger) {
+      // concurrent project removal must not dispose the realm before the project using it is registered
+      CacheRecord record = super.get(key);
+      if(record != null) {
+        plunger.pin(key);
+      }
+      return record;
+    }
+  }
+
+  @Override
+  public CacheRecord put(Key key, ClassRealm projectRealm, DependencyFilter extensionArtifactFilter) {
+    synchronized(plunger) {
+      CacheRecord record = super.put(key, projectRealm, extensionArtifactFilter);
+      plunger.pin(key);
+      return record;
+    }
+  }
+
   @Override
   public void register(MavenProject project, Key key, CacheRecord record) {
     plunger.register(project, key);
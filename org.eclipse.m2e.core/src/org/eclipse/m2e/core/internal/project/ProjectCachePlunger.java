@@ -12,14 +12,20 @@
 package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
 
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RepositoryPolicy;
@@ -27,28 +33,113 @@ import org.eclipse.aether.repository.RepositoryPolicy;
 import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.codehaus.plexus.classworlds.realm.NoSuchRealmException;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.project.MavenProject;
 
+import org.eclipse.m2e.core.embedder.IMavenConfiguration;
+import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.embedder.MavenExecutionContext;
 
 
 /**
+ * Tracks which projects use which cache entries and flushes entries no longer used by any project.
+ * <p>
+ * Instances are shared by concurrent project builds. Both project/key maps are guarded by the plunger monitor, and
+ * removal of a project, including flushing of cache entries no other project uses, is atomic with respect to
+ * registration of projects.
+ * <p>
+ * Cache owners pin entries they hand out, see {@link #pin(Object)}, so an entry looked up by one thread is not flushed
+ * by another thread before the first thread registered the project that uses the entry.
+ * <p>
+ * Optionally, entries no project uses anymore are retained for reuse, up to {@link #getMaxRetained()} entries for at
+ * most {@link #getRetentionTimeout()} milliseconds, and flushed least recently released first. Expired entries are
+ * flushed the next time a project is registered or removed.
+ * 
  * @since 1.6
  */
 abstract class ProjectCachePlunger<Key> {
 
   private final Logger log = LoggerFactory.getLogger(getClass());
 
-  final Multimap<File, Key> projectKeys = HashMultimap.create();
+  private final Multimap<File, Key> projectKeys = HashMultimap.create();
 
-  final Multimap<Key, File> keyProjects = HashMultimap.create();
+  private final Multimap<Key, File> keyProjects = HashMultimap.create();
+
+  private final boolean retainUnreferenced;
+
+  /**
+   * Maps retained keys no project uses anymore to the time the last project released them, oldest first.
+   */
+  private final Map<Key, Long> unreferenced = new LinkedHashMap<Key, Long>();
+
+  /**
+   * Keys pinned by threads that looked up the cache entry but did not register a project using it yet.
+   */
+  private final Multiset<Key> pinned = HashMultiset.create();
+
+  private final ThreadLocal<Key> threadPin = new ThreadLocal<Key>();
+
+  /**
+   * Keys no project uses anymore that were not flushed because they were pinned.
+   */
+  private final Set<Key> deferred = new HashSet<Key>();
+
+  protected ProjectCachePlunger() {
+    this(false);
+  }
+
+  /**
+   * @param retainUnreferenced whether entries no project uses anymore are retained for reuse instead of flushed
+   * @since 1.7
+   */
+  protected ProjectCachePlunger(boolean retainUnreferenced) {
+    this.retainUnreferenced = retainUnreferenced;
+  }
 
   public void register(MavenProject project, Key cacheKey) {
+    boolean reused = false;
     // project.file is null for parent pom.xml resolved from repositories
     File file = project.getFile();
-    if(file != null) {
-      projectKeys.put(file, cacheKey);
-      keyProjects.put(cacheKey, file);
+    synchronized(this) {
+      if(file != null) {
+        reused = unreferenced.remove(cacheKey) != null;
+        deferred.remove(cacheKey);
+        projectKeys.put(file, cacheKey);
+        keyProjects.put(cacheKey, file);
+      }
+      unpin();
+      flushUnreferenced(false);
+    }
+    registered(cacheKey, reused);
+  }
+
+  /**
+   * Pins the cache entry for the current thread until the thread registers a project with
+   * {@link #register(MavenProject, Object)} or pins another entry. Pinned entries are not flushed. Callers must look
+   * up or add the entry while holding the plunger monitor, otherwise the entry may be flushed before it is pinned.
+   * 
+   * @since 1.7
+   */
+  public synchronized void pin(Key cacheKey) {
+    unpin();
+    pinned.add(cacheKey);
+    threadPin.set(cacheKey);
+  }
+
+  /**
+   * Releases pin of the current thread, if any, and flushes the entry if it was only kept because of pins. Callers must
+   * hold the plunger monitor.
+   */
+  private void unpin() {
+    Key cacheKey = threadPin.get();
+    if(cacheKey == null) {
+      return;
+    }
+    threadPin.remove();
+    pinned.remove(cacheKey);
+    if(!pinned.contains(cacheKey) && !keyProjects.containsKey(cacheKey) && deferred.remove(cacheKey)) {
+      flush(cacheKey);
+      log.debug("Flushed cache entry for {}", cacheKey);
     }
   }
 
@@ -60,20 +151,40 @@ abstract class ProjectCachePlunger<Key> {
     }
     final Set<File> affectedProjects = new HashSet<>();
 
-    for(Key cacheKey : projectKeys.removeAll(pom)) {
-      keyProjects.remove(cacheKey, pom);
-      if(forceDependencyUpdate && RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals(session.getUpdatePolicy())
-          && session.getCache().get(session, cacheKey) == null) {
-        session.getCache().put(session, cacheKey, Boolean.TRUE);
-        for(File affectedPom : keyProjects.removeAll(cacheKey)) {
-          affectedProjects.add(affectedPom);
-          projectKeys.remove(affectedPom, cacheKey);
+    boolean forceUpdate = forceDependencyUpdate
+        && RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals(session.getUpdatePolicy());
+
+    synchronized(this) {
+      // retained entries may be just as stale as the ones in use
+      flushUnreferenced(forceUpdate);
+
+      for(Key cacheKey : projectKeys.removeAll(pom)) {
+        keyProjects.remove(cacheKey, pom);
+        boolean forced = false;
+        if(forceUpdate && session.getCache().get(session, cacheKey) == null) {
+          session.getCache().put(session, cacheKey, Boolean.TRUE);
+          for(File affectedPom : keyProjects.removeAll(cacheKey)) {
+            affectedProjects.add(affectedPom);
+            projectKeys.remove(affectedPom, cacheKey);
+          }
+          forced = true;
+        }
+        if(!keyProjects.containsKey(cacheKey)) {
+          if(retainUnreferenced && !forced && isRetainable(cacheKey)) {
+            unreferenced.put(cacheKey, System.currentTimeMillis());
+            log.debug("Retained unreferenced cache entry for {}", cacheKey);
+          } else if(pinned.contains(cacheKey)) {
+            // another thread is about to use the entry
+            deferred.add(cacheKey);
+            log.debug("Deferred flush of pinned cache entry for {}", cacheKey);
+          } else {
+            flush(cacheKey);
+            log.debug("Flushed cache entry for {}", cacheKey);
+          }
         }
       }
-      if(!keyProjects.containsKey(cacheKey)) {
-        flush(cacheKey);
-        log.debug("Flushed cache entry for {}", cacheKey);
-      }
+
+      flushUnreferenced(false);
     }
 
     return affectedProjects;
@@ -87,10 +198,104 @@ abstract class ProjectCachePlunger<Key> {
     }
   }
 
+  /**
+   * Flushes retained unreferenced entries over the size limit or older than the timeout, or all of them. Callers must
+   * hold the plunger monitor.
+   */
+  private void flushUnreferenced(boolean all) {
+    if(unreferenced.isEmpty()) {
+      return;
+    }
+    int maxSize = getMaxRetained();
+    long expired = System.currentTimeMillis() - getRetentionTimeout();
+    Iterator<Map.Entry<Key, Long>> entries = unreferenced.entrySet().iterator();
+    while(entries.hasNext()) {
+      Map.Entry<Key, Long> entry = entries.next();
+      if(!all && unreferenced.size() <= maxSize && entry.getValue().longValue() > expired) {
+        // remaining entries were released later
+        break;
+      }
+      if(pinned.contains(entry.getKey())) {
+        // keep retaining the entry until the pinning thread registers or releases it
+        continue;
+      }
+      entries.remove();
+      flush(entry.getKey());
+      log.debug("Flushed unreferenced cache entry for {}", entry.getKey());
+    }
+  }
+
+  /**
+   * Returns maximum number of retained entries no project uses anymore, {@link IMavenConfiguration#getRealmCacheSize()}
+   * by default.
+   * 
+   * @since 1.7
+   */
+  protected int getMaxRetained() {
+    IMavenConfiguration configuration = getMavenConfiguration();
+    return configuration != null ? configuration.getRealmCacheSize() : 0;
+  }
+
+  /**
+   * Returns number of milliseconds entries no project uses anymore are retained for,
+   * {@link IMavenConfiguration#getRealmCacheTimeout()} by default.
+   * 
+   * @since 1.7
+   */
+  protected long getRetentionTimeout() {
+    IMavenConfiguration configuration = getMavenConfiguration();
+    return configuration != null ? configuration.getRealmCacheTimeout() * 1000L : 0;
+  }
+
+  private static IMavenConfiguration getMavenConfiguration() {
+    MavenPluginActivator activator = MavenPluginActivator.getDefault();
+    return activator != null ? activator.getMavenConfiguration() : null;
+  }
+
+  /**
+   * Whether the entry may be retained after no project uses it anymore. Called while holding the plunger monitor.
+   * 
+   * @since 1.7
+   */
+  protected boolean isRetainable(Key cacheKey) {
+    return true;
+  }
+
+  /**
+   * Returns <code>true</code> if none of the artifacts can change without changing its version. SNAPSHOT artifacts
+   * can be redeployed and artifacts resolved from the workspace are project output folders, realms created from
+   * such artifacts must not be reused once no project uses them anymore.
+   * 
+   * @since 1.7
+   */
+  protected static boolean isImmutable(Collection<Artifact> artifacts) {
+    for(Artifact artifact : artifacts) {
+      File file = artifact.getFile();
+      if(artifact.isSnapshot() || file == null || file.isDirectory()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Called after a project registered use of the cache entry.
+   * 
+   * @param reused whether the entry was retained after no project used it anymore
+   * @since 1.7
+   */
+  protected void registered(Key cacheKey, boolean reused) {
+  }
+
+  /**
+   * Removes cache entry no project uses anymore. Called while holding the plunger monitor.
+   */
   protected abstract void flush(Key cacheKey);
 
-  public void flush() {
+  public synchronized void flush() {
     projectKeys.clear();
     keyProjects.clear();
+    unreferenced.clear();
+    deferred.clear();
   }
 }
@@ -83,7 +83,7 @@ import org.eclipse.m2e.core.internal.markers.IMavenMarkerManager;
 import org.eclipse.m2e.core.internal.preferences.ProblemSeverity;
 import org.eclipse.m2e.core.internal.project.registry.MavenProjectFacade;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryManager;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectImportResult;
 import org.eclipse.m2e.core.project.IProjectConfigurationManager;
@@ -103,7 +103,7 @@ import org.eclipse.m2e.core.project.configurator.ProjectConfigurationRequest;
  * 
  * @author igor
  */
-public class ProjectConfigurationManager implements IProjectConfigurationManager, IMavenProjectChangedListener,
+public class ProjectConfigurationManager implements IProjectConfigurationManager, IMavenProjectChangedBatchListener,
     IResourceChangeListener {
   /*package*/static final Logger log = LoggerFactory.getLogger(ProjectConfigurationManager.class);
 
@@ -990,6 +990,7 @@ public class ProjectConfigurationManager implements IProjectConfigurationManager
   }
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+    // only markers of the changed projects are updated, which does not need workspace lock
     for(MavenProjectChangedEvent event : events) {
       try {
         IMavenProjectFacade facade = event.getMavenProject();
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
+
+/**
+ * Usage statistics of a class realm cache. Realm creation time is measured from the cache miss to registration of the
+ * newly created realm with the first project.
+ *
+ * @since 1.7
+ */
+public class RealmCacheStatistics {
+
+  /**
+   * Cache misses older than this are assumed to have failed realm creation and are not tracked anymore.
+   */
+  private static final long MISS_TIMEOUT = 10 * 60 * 1000L;
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final AtomicLong reused = new AtomicLong();
+
+  private final AtomicLong created = new AtomicLong();
+
+  private final AtomicLong creationTime = new AtomicLong();
+
+  private final AtomicLong disposed = new AtomicLong();
+
+  /**
+   * Maps cache key to time of the cache miss, until the realm created for the key is registered.
+   */
+  private final Map<Object, Long> missTimes = new ConcurrentHashMap<Object, Long>();
+
+  private volatile int liveRealms;
+
+  private volatile int liveJars;
+
+  void lookup(Object key, boolean hit) {
+    if(hit) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+      long now = System.currentTimeMillis();
+      // realm creation failed for keys that were never registered, do not track them forever
+      Iterator<Long> missTime = missTimes.values().iterator();
+      while(missTime.hasNext()) {
+        if(missTime.next().longValue() < now - MISS_TIMEOUT) {
+          missTime.remove();
+        }
+      }
+      missTimes.put(key, now);
+    }
+  }
+
+  void registered(Object key, boolean reused) {
+    Long missTime = missTimes.remove(key);
+    if(missTime != null) {
+      created.incrementAndGet();
+      creationTime.addAndGet(System.currentTimeMillis() - missTime.longValue());
+    }
+    if(reused) {
+      this.reused.incrementAndGet();
+    }
+  }
+
+  void disposed() {
+    disposed.incrementAndGet();
+  }
+
+  void update(Collection<ClassRealm> realms) {
+    int jars = 0;
+    for(ClassRealm realm : realms) {
+      jars += realm.getURLs().length;
+    }
+    this.liveRealms = realms.size();
+    this.liveJars = jars;
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Number of times a realm no project referenced anymore was picked up by a project again, instead of being created.
+   */
+  public long getReused() {
+    return reused.get();
+  }
+
+  public long getCreated() {
+    return created.get();
+  }
+
+  /**
+   * Total milliseconds spent creating realms.
+   */
+  public long getCreationTime() {
+    return creationTime.get();
+  }
+
+  public long getDisposed() {
+    return disposed.get();
+  }
+
+  /**
+   * Number of realms in the cache when the statistics were obtained, including retained unreferenced realms.
+   */
+  public int getLiveRealms() {
+    return liveRealms;
+  }
+
+  /**
+   * Number of jars of the live realms.
+   */
+  public int getLiveJars() {
+    return liveJars;
+  }
+
+  public String toString() {
+    return "hits=" + getHits() + ", misses=" + getMisses() + ", reused=" + getReused() + ", created=" + getCreated() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        + " in " + getCreationTime() + " ms, disposed=" + getDisposed() + ", live realms=" + getLiveRealms() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        + ", live jars=" + getLiveJars(); //$NON-NLS-1$
+  }
+}
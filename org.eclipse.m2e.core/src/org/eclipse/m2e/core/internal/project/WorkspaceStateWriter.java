@@ -13,6 +13,8 @@ package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,102 +27,210 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.apache.maven.project.MavenProject;
 
 import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.internal.Messages;
+import org.eclipse.m2e.core.internal.jobs.IBackgroundProcessingQueue;
 import org.eclipse.m2e.core.internal.project.registry.MavenProjectManager;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 import org.eclipse.m2e.workspace.MutableWorkspaceState;
 
 
 /**
- * Maintains map file of maven artifacts present in workspace.
+ * Maintains map file of maven artifacts present in workspace. Workspace state entries are kept in memory and only
+ * entries of changed projects are recalculated. Whether output folders exist is checked when the file is written, since
+ * folders are created and deleted independently of project changes. The map file is written by a background job,
+ * changes that arrive while the job waits are written together.
  */
-public class WorkspaceStateWriter implements IMavenProjectChangedListener {
+public class WorkspaceStateWriter implements IMavenProjectChangedBatchListener {
   private static QualifiedName PPROP_EXTENSION = new QualifiedName(WorkspaceStateWriter.class.getName(), "extension"); //$NON-NLS-1$
 
   private static final Logger log = LoggerFactory.getLogger(WorkspaceStateWriter.class);
 
+  private static final long WRITE_DELAY = 200L;
+
   private MavenProjectManager projectManager;
 
+  /**
+   * Maps pom file to workspace state entries of the project, guarded by itself. Populated on the first project change
+   * event.
+   */
+  private final Map<IFile, ProjectState> projects = new LinkedHashMap<IFile, ProjectState>();
+
+  private boolean initialized;
+
+  private boolean dirty;
+
+  private final WriterJob writerJob = new WriterJob();
+
   public WorkspaceStateWriter(MavenProjectManager projectManager) {
     this.projectManager = projectManager;
   }
 
+  /**
+   * Workspace state entries of one project.
+   */
+  private static class ProjectState {
+    ArtifactKey artifact;
+
+    File pom;
+
+    /** Full workspace path of the output folder, or {@code null} for projects without main artifact */
+    IPath outputLocation;
+
+    String extension;
+
+    /** Full workspace path of the test output folder, or {@code null} for projects without tests artifact */
+    IPath testOutputLocation;
+  }
+
+  class WriterJob extends Job implements IBackgroundProcessingQueue {
+
+    WriterJob() {
+      super(Messages.ProjectRegistryManager_task_saving);
+      setSystem(true);
+    }
+
+    public IStatus run(IProgressMonitor monitor) {
+      writeState();
+      return Status.OK_STATUS;
+    }
+
+    public boolean isEmpty() {
+      synchronized(projects) {
+        return !dirty;
+      }
+    }
+  }
+
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
-    try {
-      MutableWorkspaceState state = new MutableWorkspaceState();
-
-      IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-      for(IMavenProjectFacade projectFacade : projectManager.getProjects()) {
-        IProject project = projectFacade.getProject();
-        if(!project.isAccessible()) {
-          log.debug("Project registry contains closed project {}", project);
-          // this is actually a bug somewhere in registry refresh logic, closed projects should not be there
-          continue;
+    synchronized(projects) {
+      if(!initialized) {
+        for(IMavenProjectFacade projectFacade : projectManager.getProjects()) {
+          putProject(projectFacade);
         }
-        try {
-          ArtifactKey artifact = projectFacade.getArtifactKey();
-          IFile pomFile = projectFacade.getPom();
-          IPath location = pomFile.getLocation();
-          if(location != null) {
-            File pom = location.toFile();
-            if(pom.canRead()) {
-              state.putPom(pom, artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
-            }
-          }
-          IResource outputLocation = root.findMember(projectFacade.getOutputLocation());
-          if(!"pom".equals(projectFacade.getPackaging()) && outputLocation != null && outputLocation.exists()) { //$NON-NLS-1$
-            // three cases to consider
-            // 1. facade has cached MavenProject instance, i.e. it was refreshed during this eclipse session
-            // 2. project has persistent PPROP_EXTENSION
-            // 3. neither cached MavenProject instance nor PPROP_EXTENSION are present
-            String extension;
-            MavenProject mavenProject = projectFacade.getMavenProject();
-            if(mavenProject != null) {
-              extension = getAndPersistArtifactExtension(project, mavenProject);
-            } else {
-              extension = project.getPersistentProperty(PPROP_EXTENSION);
-            }
-            if(extension == null && mavenProject == null) {
-              // force loading of MavenProject
-              extension = getAndPersistArtifactExtension(project, projectFacade.getMavenProject(monitor));
-            }
-            if(extension != null) {
-              String classifier = artifact.getClassifier();
-              if(classifier == null) {
-                classifier = "";
-              }
-              state.putArtifact(outputLocation.getLocation().toFile(), artifact.getGroupId(), artifact.getArtifactId(),
-                  extension, classifier, artifact.getVersion());
-            } else {
-              log.warn("Could not determine project {} main artifact extension.", project);
-            }
+        initialized = true;
+      } else {
+        for(MavenProjectChangedEvent event : events) {
+          projects.remove(event.getSource());
+          if(event.getMavenProject() != null) {
+            putProject(event.getMavenProject());
           }
-          // assume test output location gets attached as classified=tests
-          IResource testOutputLocation = root.findMember(projectFacade.getTestOutputLocation());
-          if(!"pom".equals(projectFacade.getPackaging()) && testOutputLocation != null && testOutputLocation.exists()) {
-            state.putArtifact(testOutputLocation.getLocation().toFile(), artifact.getGroupId(),
-                artifact.getArtifactId(), "jar", "tests", artifact.getVersion());
-          }
-        } catch(CoreException ex) {
-          log.error("Error writing workspace state file", ex);
         }
       }
+      dirty = true;
+    }
+    writerJob.schedule(WRITE_DELAY);
+  }
 
+  private void putProject(IMavenProjectFacade projectFacade) {
+    IProject project = projectFacade.getProject();
+    if(!project.isAccessible()) {
+      log.debug("Project registry contains closed project {}", project);
+      // this is actually a bug somewhere in registry refresh logic, closed projects should not be there
+      return;
+    }
+    try {
+      ProjectState state = new ProjectState();
+      state.artifact = projectFacade.getArtifactKey();
+      IFile pomFile = projectFacade.getPom();
+      IPath location = pomFile.getLocation();
+      if(location != null) {
+        state.pom = location.toFile();
+      }
+      if(!"pom".equals(projectFacade.getPackaging())) { //$NON-NLS-1$
+        // two cases to consider
+        // 1. facade has cached MavenProject instance, i.e. it was refreshed during this eclipse session
+        // 2. project has persistent PPROP_EXTENSION
+        // MavenProject is never loaded here, projects without either are written once they are refreshed
+        String extension;
+        MavenProject mavenProject = projectFacade.getMavenProject();
+        if(mavenProject != null) {
+          extension = getAndPersistArtifactExtension(project, mavenProject);
+        } else {
+          extension = project.getPersistentProperty(PPROP_EXTENSION);
+        }
+        if(extension != null) {
+          state.outputLocation = projectFacade.getOutputLocation();
+          state.extension = extension;
+        } else {
+          log.debug("Could not determine project {} main artifact extension.", project);
+        }
+        // assume test output location gets attached as classified=tests
+        state.testOutputLocation = projectFacade.getTestOutputLocation();
+      }
+      projects.put(pomFile, state);
+    } catch(CoreException ex) {
+      log.error("Error writing workspace state file", ex);
+    }
+  }
+
+  synchronized void writeState() {
+    IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+    MutableWorkspaceState state = new MutableWorkspaceState();
+    synchronized(projects) {
+      for(ProjectState project : projects.values()) {
+        ArtifactKey artifact = project.artifact;
+        if(project.pom != null && project.pom.canRead()) {
+          state.putPom(project.pom, artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+        }
+        File outputLocation = getExistingLocation(root, project.outputLocation);
+        if(outputLocation != null) {
+          String classifier = artifact.getClassifier();
+          if(classifier == null) {
+            classifier = "";
+          }
+          state.putArtifact(outputLocation, artifact.getGroupId(), artifact.getArtifactId(),
+              project.extension, classifier, artifact.getVersion());
+        }
+        File testOutputLocation = getExistingLocation(root, project.testOutputLocation);
+        if(testOutputLocation != null) {
+          state.putArtifact(testOutputLocation, artifact.getGroupId(), artifact.getArtifactId(), "jar",
+              "tests", artifact.getVersion());
+        }
+      }
+      dirty = false;
+    }
+    try {
       state.store(projectManager.getWorkspaceStateFile());
     } catch(IOException ex) {
       log.error("Error writing workspace state file", ex);
     }
   }
 
+  /**
+   * Writes pending changes, if any, without waiting for the background job.
+   */
+  public void flush() {
+    writerJob.cancel();
+    boolean pending;
+    synchronized(projects) {
+      pending = dirty;
+    }
+    if(pending) {
+      writeState();
+    }
+  }
+
+  private static File getExistingLocation(IWorkspaceRoot root, IPath path) {
+    IResource resource = path != null ? root.findMember(path) : null;
+    IPath location = resource != null && resource.exists() ? resource.getLocation() : null;
+    return location != null ? location.toFile() : null;
+  }
+
   private String getAndPersistArtifactExtension(IProject project, MavenProject mavenProject) throws CoreException {
     String extension = mavenProject.getArtifact().getArtifactHandler().getExtension();
-    project.setPersistentProperty(PPROP_EXTENSION, extension);
+    if(!extension.equals(project.getPersistentProperty(PPROP_EXTENSION))) {
+      project.setPersistentProperty(PPROP_EXTENSION, extension);
+    }
     return extension;
   }
 }
@@ -15,8 +15,6 @@ import java.io.File;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,6 +43,12 @@ abstract class BasicProjectRegistry implements Serializable {
    */
   protected final Map<ArtifactKey, Set<IFile>> workspaceArtifacts = new HashMap<>();
 
+  /**
+   * Maps groupId:artifactId (as versionless ArtifactKey) to workspaceArtifacts keys with the same groupId and
+   * artifactId.
+   */
+  protected final Map<ArtifactKey, Set<ArtifactKey>> workspaceArtifactsByGA = new HashMap<>();
+
   /**
    * Maps IFile to MavenProjectFacade
    */
@@ -77,37 +81,21 @@ abstract class BasicProjectRegistry implements Serializable {
     replaceWith(other);
   }
 
+  /**
+   * Replaces contents of this registry with contents of the other registry. Only top-level maps are copied, nested
+   * sets and maps are shared between the two registries and must be treated as immutable. See
+   * {@link MutableProjectRegistry} for copy-on-write modification of nested collections.
+   */
   protected final void replaceWith(BasicProjectRegistry other) {
     clear();
 
-    copy(other.workspaceArtifacts, workspaceArtifacts);
-    copy(other.workspacePoms, workspacePoms);
-    copy(other.projectCapabilities, projectCapabilities);
-    copy(other.projectRequirements, projectRequirements);
-    copy(other.requiredCapabilities, requiredCapabilities);
-
-    for(MavenProjectFacade facade : workspacePoms.values()) {
-      workspacePomFiles.put(facade.getPomFile(), facade);
-    }
-  }
-
-  /**
-   * THIS IS NOT A GENERIC DEEP COPY IMPLEMENTATION!
-   */
-  @SuppressWarnings({"unchecked", "rawtypes"})
-  private static void copy(Map from, Map to) {
-    for(Map.Entry entry : (Set<Map.Entry>) from.entrySet()) {
-      Object value = entry.getValue();
-      if(value instanceof Map) {
-        Map map = new LinkedHashMap();
-        copy((Map) value, map);
-        value = map;
-      } else if(value instanceof Set) {
-        Set set = new LinkedHashSet((Set) value);
-        value = set;
-      }
-      to.put(entry.getKey(), value);
-    }
+    workspaceArtifacts.putAll(other.workspaceArtifacts);
+    workspaceArtifactsByGA.putAll(other.workspaceArtifactsByGA);
+    workspacePoms.putAll(other.workspacePoms);
+    workspacePomFiles.putAll(other.workspacePomFiles);
+    projectCapabilities.putAll(other.projectCapabilities);
+    projectRequirements.putAll(other.projectRequirements);
+    requiredCapabilities.putAll(other.requiredCapabilities);
   }
 
   public MavenProjectFacade getProjectFacade(IFile pom) {
@@ -135,10 +123,13 @@ abstract class BasicProjectRegistry implements Serializable {
 
   public Map<ArtifactKey, Collection<IFile>> getWorkspaceArtifacts(String groupId, String artifactId) {
     Multimap<ArtifactKey, IFile> artifacts = HashMultimap.create();
-    for(Map.Entry<ArtifactKey, Set<IFile>> entry : workspaceArtifacts.entrySet()) {
-      ArtifactKey workspaceKey = entry.getKey();
-      if(groupId.equals(workspaceKey.getGroupId()) && artifactId.equals(workspaceKey.getArtifactId())) {
-        artifacts.putAll(workspaceKey, entry.getValue());
+    Set<ArtifactKey> workspaceKeys = workspaceArtifactsByGA.get(new ArtifactKey(groupId, artifactId, null, null));
+    if(workspaceKeys != null) {
+      for(ArtifactKey workspaceKey : workspaceKeys) {
+        Set<IFile> paths = workspaceArtifacts.get(workspaceKey);
+        if(paths != null) {
+          artifacts.putAll(workspaceKey, paths);
+        }
       }
     }
     return artifacts.asMap();
@@ -146,6 +137,7 @@ abstract class BasicProjectRegistry implements Serializable {
 
   protected void clear() {
     workspaceArtifacts.clear();
+    workspaceArtifactsByGA.clear();
     workspacePoms.clear();
     workspacePomFiles.clear();
     requiredCapabilities.clear();
@@ -156,6 +148,7 @@ abstract class BasicProjectRegistry implements Serializable {
   public boolean isValid() {
     return MavenPluginActivator.getQualifiedVersion().equals(m2e_version) //
         && workspaceArtifacts != null //
+        && workspaceArtifactsByGA != null //
         && workspacePoms != null //
         && workspacePomFiles != null //
         && requiredCapabilities != null //
@@ -173,6 +166,10 @@ abstract class BasicProjectRegistry implements Serializable {
     return true;
   }
 
+  protected Set<Capability> getProjectCapabilities(IFile pom) {
+    return projectCapabilities.get(pom);
+  }
+
   protected Set<RequiredCapability> getProjectRequirements(IFile pom) {
     return projectRequirements.get(pom);
   }
@@ -49,6 +49,13 @@ public class MavenCapability extends Capability {
     return version;
   }
 
+  /**
+   * Recreates persisted capability, see {@link ProjectRecordCodec}.
+   */
+  static MavenCapability create(String namespace, String id, String version) {
+    return new MavenCapability(namespace, id, version);
+  }
+
   public String toString() {
     return getVersionlessKey().toString() + "/" + version; //$NON-NLS-1$
   }
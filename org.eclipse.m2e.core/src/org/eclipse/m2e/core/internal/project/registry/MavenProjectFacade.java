@@ -179,6 +179,37 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
     this.timestamp = Arrays.copyOf(other.timestamp, other.timestamp.length);
   }
 
+  /**
+   * Recreates persisted facade, see {@link ProjectRecordCodec}.
+   */
+  MavenProjectFacade(ProjectRegistryManager manager, IFile pom, File pomFile,
+      ResolverConfiguration resolverConfiguration, long[] timestamp, ArtifactKey artifactKey, List<String> modules,
+      String packaging, IPath[] resourceLocations, IPath[] testResourceLocations, IPath[] compileSourceLocations,
+      IPath[] testCompileSourceLocations, IPath outputLocation, IPath testOutputLocation,
+      Set<ArtifactRepositoryRef> artifactRepositories, Set<ArtifactRepositoryRef> pluginArtifactRepositories,
+      Set<ArtifactRef> artifacts, String lifecycleMappingId,
+      Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mojoExecutionMapping) {
+    this.manager = manager;
+    this.pom = pom;
+    this.pomFile = pomFile;
+    this.resolverConfiguration = resolverConfiguration;
+    this.timestamp = timestamp;
+    this.artifactKey = artifactKey;
+    this.modules = modules;
+    this.packaging = packaging;
+    this.resourceLocations = resourceLocations;
+    this.testResourceLocations = testResourceLocations;
+    this.compileSourceLocations = compileSourceLocations;
+    this.testCompileSourceLocations = testCompileSourceLocations;
+    this.outputLocation = outputLocation;
+    this.testOutputLocation = testOutputLocation;
+    this.artifactRepositories = artifactRepositories;
+    this.pluginArtifactRepositories = pluginArtifactRepositories;
+    this.artifacts = artifacts;
+    this.lifecycleMappingId = lifecycleMappingId;
+    this.mojoExecutionMapping = mojoExecutionMapping;
+  }
+
   private static <T> T[] arrayCopy(T[] a) {
     return Arrays.copyOf(a, a.length);
   }
@@ -301,6 +332,10 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
     return false;
   }
 
+  long[] getTimestamp() {
+    return timestamp;
+  }
+
   private static long getModificationStamp(IFile file) {
     /*
      * this implementation misses update in the following scenario
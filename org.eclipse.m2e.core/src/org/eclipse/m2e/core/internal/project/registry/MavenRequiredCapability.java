@@ -44,6 +44,30 @@ public class MavenRequiredCapability extends RequiredCapability {
     this.resolved = resolved;
   }
 
+  /**
+   * Recreates persisted requirement, see {@link ProjectRecordCodec}.
+   */
+  static MavenRequiredCapability create(String namespace, String id, String versionRange, String scope,
+      boolean optional, boolean resolved) {
+    return new MavenRequiredCapability(namespace, id, versionRange, scope, optional, resolved);
+  }
+
+  String getVersionRange() {
+    return versionRange;
+  }
+
+  String getScope() {
+    return scope;
+  }
+
+  boolean isOptional() {
+    return optional;
+  }
+
+  boolean isResolved() {
+    return resolved;
+  }
+
   public static MavenRequiredCapability createResolvedMavenArtifact(ArtifactKey key, String scope, boolean optional) {
     return new MavenRequiredCapability(MavenCapability.NS_MAVEN_ARTIFACT, MavenCapability.getId(key), key.getVersion(),
         scope, optional, true);
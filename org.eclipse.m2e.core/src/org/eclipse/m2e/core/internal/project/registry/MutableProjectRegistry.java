@@ -14,9 +14,9 @@ package org.eclipse.m2e.core.internal.project.registry;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,12 +43,60 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
 
   private boolean closed;
 
+  /**
+   * Nested sets and maps created or copied by this registry. All other nested collections are shared with the parent
+   * registry and are copied on first modification.
+   */
+  private final Set<Object> ownedCollections = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
   public MutableProjectRegistry(ProjectRegistry state) {
     super(state);
     this.parent = state;
     this.parentVersion = state.getVersion();
   }
 
+  /**
+   * Returns modifiable set mapped to the key, copying shared set or creating new set as necessary. Returns
+   * {@code null} if there is no set mapped to the key and {@code create} is {@code false}.
+   */
+  private <K, V> Set<V> getOwnedSet(Map<K, Set<V>> map, K key, boolean create) {
+    Set<V> set = map.get(key);
+    if(set == null && !create) {
+      return null;
+    }
+    if(set == null || !ownedCollections.contains(set)) {
+      set = set != null ? new LinkedHashSet<V>(set) : new LinkedHashSet<V>();
+      ownedCollections.add(set);
+      map.put(key, set);
+    }
+    return set;
+  }
+
+  /**
+   * Returns modifiable map mapped to the key, copying shared map or creating new map as necessary. Values of the
+   * returned map are not copied. Returns {@code null} if there is no map mapped to the key and {@code create} is
+   * {@code false}.
+   */
+  private <K, K2, V> Map<K2, V> getOwnedMap(Map<K, Map<K2, V>> map, K key, boolean create) {
+    Map<K2, V> nested = map.get(key);
+    if(nested == null && !create) {
+      return null;
+    }
+    if(nested == null || !ownedCollections.contains(nested)) {
+      nested = nested != null ? new LinkedHashMap<K2, V>(nested) : new LinkedHashMap<K2, V>();
+      ownedCollections.add(nested);
+      map.put(key, nested);
+    }
+    return nested;
+  }
+
+  /**
+   * Called after contents of this registry was applied to the parent registry, all nested collections are now shared.
+   */
+  void disownCollections() {
+    ownedCollections.clear();
+  }
+
   private void assertNotClosed() {
     if(closed) {
       throw new IllegalStateException("Can't modify closed MutableProjectRegistry"); //$NON-NLS-1$
@@ -61,22 +109,16 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
     // remove
     MavenProjectFacade oldFacade = workspacePoms.remove(pom);
     if(oldFacade != null) {
-      Set<IFile> paths = workspaceArtifacts.get(oldFacade.getArtifactKey());
-      if(paths != null) {
-        paths.remove(pom);
-      }
+      removeWorkspaceArtifact(oldFacade.getArtifactKey(), pom);
+      workspacePomFiles.remove(oldFacade.getPomFile());
     }
     if(facade != null) {
       // Add the project to workspaceProjects map
       workspacePoms.put(pom, facade);
+      workspacePomFiles.put(facade.getPomFile(), facade);
 
       // Add the project to workspaceArtifacts map
-      Set<IFile> paths = workspaceArtifacts.get(facade.getArtifactKey());
-      if(paths == null) {
-        paths = new LinkedHashSet<IFile>();
-        workspaceArtifacts.put(facade.getArtifactKey(), paths);
-      }
-      paths.add(pom);
+      addWorkspaceArtifact(facade.getArtifactKey(), pom);
     }
   }
 
@@ -93,10 +135,7 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
 
     // Remove the project from workspaceArtifacts map
     if(mavenProject != null) {
-      Set<IFile> paths = workspaceArtifacts.get(mavenProject);
-      if(paths != null) {
-        paths.remove(pom);
-      }
+      removeWorkspaceArtifact(mavenProject, pom);
     }
 
     if(facade != null) {
@@ -104,6 +143,32 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
     }
   }
 
+  private void addWorkspaceArtifact(ArtifactKey key, IFile pom) {
+    if(!workspaceArtifacts.containsKey(key)) {
+      ArtifactKey gaKey = new ArtifactKey(key.getGroupId(), key.getArtifactId(), null, null);
+      getOwnedSet(workspaceArtifactsByGA, gaKey, true).add(key);
+    }
+    getOwnedSet(workspaceArtifacts, key, true).add(pom);
+  }
+
+  private void removeWorkspaceArtifact(ArtifactKey key, IFile pom) {
+    Set<IFile> paths = workspaceArtifacts.get(key);
+    if(paths == null || !paths.contains(pom)) {
+      return;
+    }
+    if(paths.size() > 1) {
+      getOwnedSet(workspaceArtifacts, key, false).remove(pom);
+      return;
+    }
+    workspaceArtifacts.remove(key);
+
+    ArtifactKey gaKey = new ArtifactKey(key.getGroupId(), key.getArtifactId(), null, null);
+    Set<ArtifactKey> keys = getOwnedSet(workspaceArtifactsByGA, gaKey, false);
+    if(keys != null && keys.remove(key) && keys.isEmpty()) {
+      workspaceArtifactsByGA.remove(gaKey);
+    }
+  }
+
   static boolean isSameProject(IResource r1, IResource r2) {
     if(r1 == null || r2 == null) {
       return false;
@@ -125,6 +190,7 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
     this.closed = true;
 
     clear();
+    ownedCollections.clear();
   }
 
   private boolean isClosed() {
@@ -185,7 +251,8 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
   }
 
   private Set<IFile> getDependents(Capability capability, boolean versionMatch, boolean remove) {
-    Map<RequiredCapability, Set<IFile>> rs = requiredCapabilities.get(capability.getVersionlessKey());
+    Map<RequiredCapability, Set<IFile>> rs = remove ? getOwnedMap(requiredCapabilities,
+        capability.getVersionlessKey(), false) : requiredCapabilities.get(capability.getVersionlessKey());
     if(rs == null) {
       return Collections.emptySet();
     }
@@ -227,17 +294,8 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
   }
 
   private void addRequiredCapability(IFile pom, RequiredCapability req) {
-    Map<RequiredCapability, Set<IFile>> keyEntry = requiredCapabilities.get(req.getVersionlessKey());
-    if(keyEntry == null) {
-      keyEntry = new HashMap<RequiredCapability, Set<IFile>>();
-      requiredCapabilities.put(req.getVersionlessKey(), keyEntry);
-    }
-    Set<IFile> poms = keyEntry.get(req);
-    if(poms == null) {
-      poms = new HashSet<IFile>();
-      keyEntry.put(req, poms);
-    }
-    poms.add(pom);
+    Map<RequiredCapability, Set<IFile>> keyEntry = getOwnedMap(requiredCapabilities, req.getVersionlessKey(), true);
+    getOwnedSet(keyEntry, req, true).add(pom);
   }
 
   public Set<Capability> setCapabilities(IFile pom, Set<Capability> capabilities) {
@@ -256,23 +314,27 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
   }
 
   private void removeRequiredCapabilities(IFile pom) {
-    // TODO likely too slow
-    Iterator<Entry<VersionlessKey, Map<RequiredCapability, Set<IFile>>>> keysIter = requiredCapabilities.entrySet()
-        .iterator();
-    while(keysIter.hasNext()) {
-      Entry<VersionlessKey, Map<RequiredCapability, Set<IFile>>> keysEntry = keysIter.next();
-      Iterator<Entry<RequiredCapability, Set<IFile>>> requirementsIter = keysEntry.getValue().entrySet().iterator();
-      while(requirementsIter.hasNext()) {
-        Entry<RequiredCapability, Set<IFile>> requirementsEntry = requirementsIter.next();
-        requirementsEntry.getValue().remove(pom);
-        if(requirementsEntry.getValue().isEmpty()) {
-          // was last project that required this capability
-          requirementsIter.remove();
-        }
+    // projectRequirements is the back-pointer index of requiredCapabilities, every requiredCapabilities entry
+    // that references the pom is keyed by one of the pom's requirements
+    Set<RequiredCapability> requirements = projectRequirements.get(pom);
+    if(requirements == null) {
+      return;
+    }
+    for(RequiredCapability requirement : requirements) {
+      VersionlessKey key = requirement.getVersionlessKey();
+      Map<RequiredCapability, Set<IFile>> keyEntry = requiredCapabilities.get(key);
+      if(keyEntry == null || keyEntry.get(requirement) == null || !keyEntry.get(requirement).contains(pom)) {
+        continue;
       }
-      if(keysEntry.getValue().isEmpty()) {
-        // was last project that required this capability versionless key
-        keysIter.remove();
+      keyEntry = getOwnedMap(requiredCapabilities, key, false);
+      Set<IFile> poms = getOwnedSet(keyEntry, requirement, false);
+      if(poms.remove(pom) && poms.isEmpty()) {
+        // was last project that required this capability
+        keyEntry.remove(requirement);
+        if(keyEntry.isEmpty()) {
+          // was last project that required this capability versionless key
+          requiredCapabilities.remove(key);
+        }
       }
     }
   }
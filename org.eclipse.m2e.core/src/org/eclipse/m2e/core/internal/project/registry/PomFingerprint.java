@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Profile;
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.project.ResolverConfiguration;
+
+
+/**
+ * Content fingerprint of the inputs used to read a MavenProject: the pom file, its parent poms, workspace resolution
+ * and content of the parents and of imported dependency management poms, resolver configuration and Maven settings.
+ * Two fingerprints of the same pom are equal if the pom would be read from identical inputs. Poms with file based
+ * profile activation do not have a fingerprint, their inputs are not known upfront.
+ * <p>
+ * File content hashes are cached and reused as long as size and modification time of the file do not change, so
+ * checking a fingerprint does not read parent poms and settings files again.
+ *
+ * @since 1.7
+ */
+class PomFingerprint {
+
+  private static final int MAX_FILE_HASHES = 10000;
+
+  private static final Cache<File, FileHash> fileHashes = CacheBuilder.newBuilder().maximumSize(MAX_FILE_HASHES)
+      .build();
+
+  private final List<File> files;
+
+  private final List<ArtifactKey> parents;
+
+  private final List<ArtifactKey> imports;
+
+  private final HashCode hash;
+
+  private PomFingerprint(List<File> files, List<ArtifactKey> parents, List<ArtifactKey> imports, HashCode hash) {
+    this.files = files;
+    this.parents = parents;
+    this.imports = imports;
+    this.hash = hash;
+  }
+
+  /**
+   * Calculates fingerprint of the inputs of the given MavenProject, or returns {@code null} if any of the inputs
+   * cannot be read.
+   */
+  public static PomFingerprint create(IProjectRegistry state, MavenProject mavenProject,
+      ResolverConfiguration configuration, MavenExecutionRequest request) {
+    List<File> files = new ArrayList<File>();
+    List<ArtifactKey> parents = new ArrayList<ArtifactKey>();
+    List<ArtifactKey> imports = new ArrayList<ArtifactKey>();
+    files.add(mavenProject.getFile());
+    if(!addImports(imports, mavenProject.getOriginalModel())) {
+      return null;
+    }
+    for(MavenProject parent = mavenProject.getParent(); parent != null; parent = parent.getParent()) {
+      if(parent.getFile() == null || !addImports(imports, parent.getOriginalModel())) {
+        return null;
+      }
+      files.add(parent.getFile());
+      parents.add(new ArtifactKey(parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), null));
+    }
+    try {
+      HashCode hash = hash(state, files, parents, imports, configuration, request);
+      return new PomFingerprint(files, parents, imports, hash);
+    } catch(IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns {@code true} if inputs of the pom did not change since this fingerprint was created.
+   */
+  public boolean isUpToDate(IProjectRegistry state, ResolverConfiguration configuration, MavenExecutionRequest request) {
+    try {
+      return hash.equals(hash(state, files, parents, imports, configuration, request));
+    } catch(IOException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Collects dependency management imports of the model, same as
+   * {@link DefaultMavenDependencyResolver#addProjectStructureRequirements}. Returns {@code false} if the model inputs
+   * cannot be determined, i.e. the model uses file based profile activation or imports with unresolved versions.
+   */
+  private static boolean addImports(List<ArtifactKey> imports, Model model) {
+    if(model == null) {
+      return false;
+    }
+    for(Profile profile : model.getProfiles()) {
+      if(profile.getActivation() != null && profile.getActivation().getFile() != null) {
+        return false;
+      }
+    }
+    DependencyManagement dependencyManagement = model.getDependencyManagement();
+    if(dependencyManagement != null) {
+      for(Dependency managedDep : dependencyManagement.getDependencies()) {
+        if("pom".equals(managedDep.getType()) && "import".equals(managedDep.getScope())) { //$NON-NLS-1$ //$NON-NLS-2$
+          if(!isInterpolated(managedDep.getGroupId()) || !isInterpolated(managedDep.getArtifactId())
+              || !isInterpolated(managedDep.getVersion())) {
+            return false;
+          }
+          imports.add(new ArtifactKey(managedDep.getGroupId(), managedDep.getArtifactId(), managedDep.getVersion(),
+              null));
+        }
+      }
+    }
+    return true;
+  }
+
+  private static boolean isInterpolated(String value) {
+    return value != null && !value.contains("${"); //$NON-NLS-1$
+  }
+
+  private static HashCode hash(IProjectRegistry state, List<File> files, List<ArtifactKey> parents,
+      List<ArtifactKey> imports, ResolverConfiguration configuration, MavenExecutionRequest request)
+      throws IOException {
+    Hasher hasher = Hashing.sha1().newHasher();
+    for(File file : files) {
+      hasher.putString(file.getAbsolutePath(), Charsets.UTF_8);
+      hasher.putBytes(hashFile(file).asBytes());
+    }
+    if(configuration.shouldResolveWorkspaceProjects()) {
+      // parents resolved from the workspace may appear or disappear without any change to the files above
+      for(ArtifactKey parent : parents) {
+        MavenProjectFacade facade = state.getProjectFacade(parent.getGroupId(), parent.getArtifactId(),
+            parent.getVersion());
+        hasher.putString(facade != null ? facade.getPomFile().getAbsolutePath() : "", Charsets.UTF_8); //$NON-NLS-1$
+      }
+      // imported poms resolved from the workspace, content included since they are not among the files above
+      for(ArtifactKey imported : imports) {
+        MavenProjectFacade facade = state.getProjectFacade(imported.getGroupId(), imported.getArtifactId(),
+            imported.getVersion());
+        hasher.putString(imported.toString(), Charsets.UTF_8);
+        if(facade != null) {
+          putFile(hasher, facade.getPomFile());
+          // managed dependencies the imported pom inherits, as far as its MavenProject is still cached
+          MavenProject parent = facade.getMavenProject() != null ? facade.getMavenProject().getParent() : null;
+          for(; parent != null; parent = parent.getParent()) {
+            putFile(hasher, parent.getFile());
+          }
+        }
+        hasher.putChar('|');
+      }
+    }
+    hasher.putBoolean(configuration.shouldResolveWorkspaceProjects());
+    hasher.putString(configuration.getSelectedProfiles(), Charsets.UTF_8);
+    putProperties(hasher, configuration.getProperties());
+    // forced updates must not reuse poms read without them
+    hasher.putBoolean(request.isUpdateSnapshots());
+    hasher.putBoolean(request.isOffline());
+    putFile(hasher, request.getUserSettingsFile());
+    putFile(hasher, request.getGlobalSettingsFile());
+    putProperties(hasher, request.getUserProperties());
+    putProperties(hasher, request.getSystemProperties());
+    return hasher.hash();
+  }
+
+  private static void putFile(Hasher hasher, File file) throws IOException {
+    if(file != null && file.isFile()) {
+      hasher.putString(file.getAbsolutePath(), Charsets.UTF_8);
+      hasher.putBytes(hashFile(file).asBytes());
+    }
+  }
+
+  private static HashCode hashFile(File file) throws IOException {
+    File key = file.getAbsoluteFile();
+    long lastModified = key.lastModified();
+    long length = key.length();
+    FileHash fileHash = fileHashes.getIfPresent(key);
+    if(fileHash == null || fileHash.lastModified != lastModified || fileHash.length != length) {
+      fileHash = new FileHash(lastModified, length, Files.hash(key, Hashing.sha1()));
+      fileHashes.put(key, fileHash);
+    }
+    return fileHash.hash;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void putProperties(Hasher hasher, Properties properties) {
+    Map<Object, Object> sorted = properties != null ? new TreeMap(properties) : Collections.emptyMap();
+    hasher.putString(sorted.toString(), Charsets.UTF_8);
+  }
+
+  public boolean equals(Object obj) {
+    if(this == obj) {
+      return true;
+    }
+    if(!(obj instanceof PomFingerprint)) {
+      return false;
+    }
+    return hash.equals(((PomFingerprint) obj).hash);
+  }
+
+  public int hashCode() {
+    return hash.hashCode();
+  }
+
+  public String toString() {
+    return hash.toString();
+  }
+
+  private static class FileHash {
+    final long lastModified;
+
+    final long length;
+
+    final HashCode hash;
+
+    FileHash(long lastModified, long length, HashCode hash) {
+      this.lastModified = lastModified;
+      this.length = length;
+      this.hash = hash;
+    }
+  }
+}
@@ -0,0 +1,774 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.Version;
+import org.osgi.service.packageadmin.PackageAdmin;
+
+import com.google.common.base.Charsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.osgi.service.resolver.VersionRange;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import org.eclipse.m2e.core.embedder.ArtifactKey;
+import org.eclipse.m2e.core.embedder.ArtifactRef;
+import org.eclipse.m2e.core.embedder.ArtifactRepositoryRef;
+import org.eclipse.m2e.core.internal.MavenPluginActivator;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionFilter;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionMetadata;
+import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.ResolverConfiguration;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+
+
+/**
+ * Binary encoding of workspace state records.
+ * <p>
+ * Encoded block starts with a string table that holds every distinct string of the block, i.e. group and artifact ids,
+ * versions and paths, followed by the number of records and the records. Each record is length-prefixed and starts
+ * with the record kind, strings are written as indexes into the string table. Project records hold the project facade
+ * field by field, including lifecycle mapping metadata and its action configuration, project capabilities and project
+ * requirements. Removal records hold the pom path only. Capabilities and requirements other than Maven ones are
+ * contributed by other bundles whose classes are not known here, they are embedded as length-prefixed Java
+ * serialization blobs annotated with the bundle of each foreign class.
+ *
+ * @since 1.7
+ */
+class ProjectRecordCodec {
+
+  private static final byte RECORD_PROJECT = 1;
+
+  private static final byte RECORD_REMOVED = 2;
+
+  private static final byte TAG_SERIALIZED = 0;
+
+  private static final byte TAG_MAVEN = 1;
+
+  private static PackageAdmin packageAdmin;
+
+  /**
+   * Collects records and writes them as one block.
+   */
+  static class RecordWriter {
+    private final ClassLoader classLoader;
+
+    private final Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+
+    private final List<String> strings = new ArrayList<String>();
+
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+    private int count;
+
+    RecordWriter(ClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+
+    public void writeProject(ProjectRegistry state, MavenProjectFacade facade) throws IOException {
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(buf);
+      out.writeByte(RECORD_PROJECT);
+      writeFile(out, facade.getPom());
+      writeFacade(out, facade);
+      writeCapabilities(out, state.getProjectCapabilities(facade.getPom()));
+      writeRequirements(out, state.getProjectRequirements(facade.getPom()));
+      addRecord(buf);
+    }
+
+    public void writeRemoved(IFile pom) throws IOException {
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(buf);
+      out.writeByte(RECORD_REMOVED);
+      writeFile(out, pom);
+      addRecord(buf);
+    }
+
+    private void addRecord(ByteArrayOutputStream buf) throws IOException {
+      DataOutputStream out = new DataOutputStream(records);
+      out.writeInt(buf.size());
+      buf.writeTo(out);
+      count++ ;
+    }
+
+    /**
+     * Writes string table followed by the records collected so far.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+      out.writeInt(strings.size());
+      for(String string : strings) {
+        byte[] bytes = string.getBytes(Charsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(count);
+      records.writeTo(out);
+    }
+
+    private void writeString(DataOutputStream out, String string) throws IOException {
+      if(string == null) {
+        out.writeInt(-1);
+        return;
+      }
+      Integer index = stringIndexes.get(string);
+      if(index == null) {
+        index = strings.size();
+        strings.add(string);
+        stringIndexes.put(string, index);
+      }
+      out.writeInt(index.intValue());
+    }
+
+    private void writeFile(DataOutputStream out, IFile file) throws IOException {
+      writeString(out, file.getFullPath().toPortableString());
+    }
+
+    private void writePath(DataOutputStream out, IPath path) throws IOException {
+      writeString(out, path != null ? path.toPortableString() : null);
+    }
+
+    private void writePaths(DataOutputStream out, IPath[] paths) throws IOException {
+      out.writeInt(paths.length);
+      for(IPath path : paths) {
+        writePath(out, path);
+      }
+    }
+
+    private void writeArtifactKey(DataOutputStream out, ArtifactKey key) throws IOException {
+      writeString(out, key.getGroupId());
+      writeString(out, key.getArtifactId());
+      writeString(out, key.getVersion());
+      writeString(out, key.getClassifier());
+    }
+
+    private void writeRepositories(DataOutputStream out, Set<ArtifactRepositoryRef> repositories) throws IOException {
+      out.writeInt(repositories.size());
+      for(ArtifactRepositoryRef repository : repositories) {
+        writeString(out, repository.getId());
+        writeString(out, repository.getUrl());
+        writeString(out, repository.getUsername());
+      }
+    }
+
+    private void writeFacade(DataOutputStream out, MavenProjectFacade facade) throws IOException {
+      writeString(out, facade.getPomFile() != null ? facade.getPomFile().getAbsolutePath() : null);
+
+      ResolverConfiguration configuration = facade.getResolverConfiguration();
+      out.writeBoolean(configuration.shouldResolveWorkspaceProjects());
+      writeString(out, configuration.getSelectedProfiles());
+      writeString(out, configuration.getLifecycleMappingId());
+      Properties properties = configuration.getProperties();
+      out.writeInt(properties != null ? properties.size() : -1);
+      if(properties != null) {
+        for(String key : properties.stringPropertyNames()) {
+          writeString(out, key);
+          writeString(out, properties.getProperty(key));
+        }
+      }
+
+      long[] timestamp = facade.getTimestamp();
+      out.writeInt(timestamp.length);
+      for(long stamp : timestamp) {
+        out.writeLong(stamp);
+      }
+
+      writeArtifactKey(out, facade.getArtifactKey());
+      List<String> modules = facade.getMavenProjectModules();
+      out.writeInt(modules.size());
+      for(String module : modules) {
+        writeString(out, module);
+      }
+      writeString(out, facade.getPackaging());
+
+      writePaths(out, facade.getResourceLocations());
+      writePaths(out, facade.getTestResourceLocations());
+      writePaths(out, facade.getCompileSourceLocations());
+      writePaths(out, facade.getTestCompileSourceLocations());
+      writePath(out, facade.getOutputLocation());
+      writePath(out, facade.getTestOutputLocation());
+
+      writeRepositories(out, facade.getArtifactRepositoryRefs());
+      writeRepositories(out, facade.getPluginArtifactRepositoryRefs());
+
+      Set<ArtifactRef> artifacts = facade.getMavenProjectArtifacts();
+      out.writeInt(artifacts != null ? artifacts.size() : -1);
+      if(artifacts != null) {
+        for(ArtifactRef artifact : artifacts) {
+          writeArtifactKey(out, artifact.getArtifactKey());
+          writeString(out, artifact.getScope());
+        }
+      }
+
+      writeString(out, facade.getLifecycleMappingId());
+      Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mapping = facade.getMojoExecutionMapping();
+      out.writeInt(mapping != null ? mapping.size() : -1);
+      if(mapping != null) {
+        // the same metadata usually maps many executions, each distinct instance is written once per facade
+        Map<IPluginExecutionMetadata, Integer> indexes = new IdentityHashMap<IPluginExecutionMetadata, Integer>();
+        List<IPluginExecutionMetadata> metadata = new ArrayList<IPluginExecutionMetadata>();
+        for(List<IPluginExecutionMetadata> executions : mapping.values()) {
+          if(executions != null) {
+            for(IPluginExecutionMetadata execution : executions) {
+              if(!indexes.containsKey(execution)) {
+                indexes.put(execution, metadata.size());
+                metadata.add(execution);
+              }
+            }
+          }
+        }
+        out.writeInt(metadata.size());
+        for(IPluginExecutionMetadata execution : metadata) {
+          writeExecutionMetadata(out, (PluginExecutionMetadata) execution);
+        }
+
+        for(Map.Entry<MojoExecutionKey, List<IPluginExecutionMetadata>> entry : mapping.entrySet()) {
+          MojoExecutionKey key = entry.getKey();
+          writeString(out, key.getGroupId());
+          writeString(out, key.getArtifactId());
+          writeString(out, key.getVersion());
+          writeString(out, key.getGoal());
+          writeString(out, key.getLifecyclePhase());
+          writeString(out, key.getExecutionId());
+          List<IPluginExecutionMetadata> executions = entry.getValue();
+          out.writeInt(executions != null ? executions.size() : -1);
+          if(executions != null) {
+            for(IPluginExecutionMetadata execution : executions) {
+              out.writeInt(indexes.get(execution).intValue());
+            }
+          }
+        }
+      }
+    }
+
+    private void writeExecutionMetadata(DataOutputStream out, PluginExecutionMetadata execution) throws IOException {
+      PluginExecutionFilter filter = execution.getFilter();
+      out.writeBoolean(filter != null);
+      if(filter != null) {
+        writeString(out, filter.getGroupId());
+        writeString(out, filter.getArtifactId());
+        writeString(out, filter.getVersionRange());
+        Set<String> goals = filter.getGoals();
+        out.writeInt(goals.size());
+        for(String goal : goals) {
+          writeString(out, goal);
+        }
+        Map<String, String> parameters = filter.getParameters();
+        out.writeInt(parameters.size());
+        for(Map.Entry<String, String> parameter : parameters.entrySet()) {
+          writeString(out, parameter.getKey());
+          writeString(out, parameter.getValue());
+        }
+      }
+      writeDom(out, (Xpp3Dom) execution.getActionDom());
+      writeString(out, execution.getComment());
+    }
+
+    private void writeDom(DataOutputStream out, Xpp3Dom dom) throws IOException {
+      out.writeBoolean(dom != null);
+      if(dom != null) {
+        writeString(out, dom.getName());
+        writeString(out, dom.getValue());
+        String[] attributes = dom.getAttributeNames();
+        out.writeInt(attributes.length);
+        for(String attribute : attributes) {
+          writeString(out, attribute);
+          writeString(out, dom.getAttribute(attribute));
+        }
+        out.writeInt(dom.getChildCount());
+        for(int i = 0; i < dom.getChildCount(); i++ ) {
+          writeDom(out, dom.getChild(i));
+        }
+      }
+    }
+
+    private void writeCapabilities(DataOutputStream out, Set<Capability> capabilities) throws IOException {
+      out.writeInt(capabilities != null ? capabilities.size() : -1);
+      if(capabilities != null) {
+        for(Capability capability : capabilities) {
+          if(capability instanceof MavenCapability) {
+            out.writeByte(TAG_MAVEN);
+            writeString(out, capability.getVersionlessKey().getNamespace());
+            writeString(out, capability.getVersionlessKey().getId());
+            writeString(out, ((MavenCapability) capability).getVersion());
+          } else {
+            out.writeByte(TAG_SERIALIZED);
+            writeSerialized(out, capability);
+          }
+        }
+      }
+    }
+
+    private void writeRequirements(DataOutputStream out, Set<RequiredCapability> requirements) throws IOException {
+      out.writeInt(requirements != null ? requirements.size() : -1);
+      if(requirements != null) {
+        for(RequiredCapability requirement : requirements) {
+          if(requirement instanceof MavenRequiredCapability) {
+            MavenRequiredCapability mavenRequirement = (MavenRequiredCapability) requirement;
+            out.writeByte(TAG_MAVEN);
+            writeString(out, requirement.getVersionlessKey().getNamespace());
+            writeString(out, requirement.getVersionlessKey().getId());
+            writeString(out, mavenRequirement.getVersionRange());
+            writeString(out, mavenRequirement.getScope());
+            out.writeBoolean(mavenRequirement.isOptional());
+            out.writeBoolean(mavenRequirement.isResolved());
+          } else {
+            out.writeByte(TAG_SERIALIZED);
+            writeSerialized(out, requirement);
+          }
+        }
+      }
+    }
+
+    private void writeSerialized(DataOutputStream out, Object object) throws IOException {
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      ObjectOutputStream os = new StateObjectOutputStream(buf, classLoader);
+      os.writeObject(object);
+      os.close();
+      out.writeInt(buf.size());
+      buf.writeTo(out);
+    }
+  }
+
+  /**
+   * Reads block of records written by {@link RecordWriter}.
+   */
+  static class RecordReader {
+    private final DataInputStream in;
+
+    private final ProjectRegistryManager manager;
+
+    private final String[] strings;
+
+    private final int count;
+
+    private final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+
+    RecordReader(DataInputStream in, ProjectRegistryManager manager) throws IOException {
+      this.in = in;
+      this.manager = manager;
+      this.strings = new String[in.readInt()];
+      for(int i = 0; i < strings.length; i++ ) {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        strings[i] = new String(bytes, Charsets.UTF_8);
+      }
+      this.count = in.readInt();
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * Reads next record and applies it to the registry. Records of unknown kind are skipped.
+     */
+    public void readRecord(MutableProjectRegistry newState) throws IOException, ClassNotFoundException {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+      byte kind = record.readByte();
+      if(kind == RECORD_PROJECT) {
+        IFile pom = readFile(record);
+        MavenProjectFacade facade = readFacade(record, pom);
+        Set<Capability> capabilities = readCapabilities(record);
+        Set<RequiredCapability> requirements = readRequirements(record);
+        newState.setProject(pom, facade);
+        newState.setCapabilities(pom, capabilities);
+        newState.setRequirements(pom, requirements);
+      } else if(kind == RECORD_REMOVED) {
+        IFile pom = readFile(record);
+        MavenProjectFacade facade = newState.getProjectFacade(pom);
+        newState.removeProject(pom, facade != null ? facade.getArtifactKey() : null);
+      }
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+      int index = in.readInt();
+      return index >= 0 ? strings[index] : null;
+    }
+
+    private IFile readFile(DataInputStream in) throws IOException {
+      return root.getFile(Path.fromPortableString(readString(in)));
+    }
+
+    private IPath readPath(DataInputStream in) throws IOException {
+      String path = readString(in);
+      return path != null ? Path.fromPortableString(path) : null;
+    }
+
+    private IPath[] readPaths(DataInputStream in) throws IOException {
+      IPath[] paths = new IPath[in.readInt()];
+      for(int i = 0; i < paths.length; i++ ) {
+        paths[i] = readPath(in);
+      }
+      return paths;
+    }
+
+    private ArtifactKey readArtifactKey(DataInputStream in) throws IOException {
+      return new ArtifactKey(readString(in), readString(in), readString(in), readString(in));
+    }
+
+    private Set<ArtifactRepositoryRef> readRepositories(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      Set<ArtifactRepositoryRef> repositories = new LinkedHashSet<ArtifactRepositoryRef>();
+      for(int i = 0; i < size; i++ ) {
+        repositories.add(new ArtifactRepositoryRef(readString(in), readString(in), readString(in)));
+      }
+      return repositories;
+    }
+
+    private MavenProjectFacade readFacade(DataInputStream in, IFile pom) throws IOException {
+      String pomPath = readString(in);
+      File pomFile = pomPath != null ? new File(pomPath) : null;
+
+      ResolverConfiguration configuration = new ResolverConfiguration();
+      configuration.setResolveWorkspaceProjects(in.readBoolean());
+      configuration.setSelectedProfiles(readString(in));
+      configuration.setLifecycleMappingId(readString(in));
+      int size = in.readInt();
+      if(size >= 0) {
+        Properties properties = new Properties();
+        for(int i = 0; i < size; i++ ) {
+          properties.setProperty(readString(in), readString(in));
+        }
+        configuration.setProperties(properties);
+      }
+
+      long[] timestamp = new long[in.readInt()];
+      for(int i = 0; i < timestamp.length; i++ ) {
+        timestamp[i] = in.readLong();
+      }
+
+      ArtifactKey artifactKey = readArtifactKey(in);
+      size = in.readInt();
+      List<String> modules = new ArrayList<String>(size);
+      for(int i = 0; i < size; i++ ) {
+        modules.add(readString(in));
+      }
+      String packaging = readString(in);
+
+      IPath[] resourceLocations = readPaths(in);
+      IPath[] testResourceLocations = readPaths(in);
+      IPath[] compileSourceLocations = readPaths(in);
+      IPath[] testCompileSourceLocations = readPaths(in);
+      IPath outputLocation = readPath(in);
+      IPath testOutputLocation = readPath(in);
+
+      Set<ArtifactRepositoryRef> artifactRepositories = readRepositories(in);
+      Set<ArtifactRepositoryRef> pluginArtifactRepositories = readRepositories(in);
+
+      Set<ArtifactRef> artifacts = null;
+      size = in.readInt();
+      if(size >= 0) {
+        artifacts = new LinkedHashSet<ArtifactRef>();
+        for(int i = 0; i < size; i++ ) {
+          artifacts.add(new ArtifactRef(readArtifactKey(in), readString(in)));
+        }
+        artifacts = Collections.unmodifiableSet(artifacts);
+      }
+
+      String lifecycleMappingId = readString(in);
+      Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mapping = null;
+      size = in.readInt();
+      if(size >= 0) {
+        IPluginExecutionMetadata[] metadata = new IPluginExecutionMetadata[in.readInt()];
+        for(int i = 0; i < metadata.length; i++ ) {
+          metadata[i] = readExecutionMetadata(in);
+        }
+        mapping = new LinkedHashMap<MojoExecutionKey, List<IPluginExecutionMetadata>>();
+        for(int i = 0; i < size; i++ ) {
+          MojoExecutionKey key = new MojoExecutionKey(readString(in), readString(in), readString(in), readString(in),
+              readString(in), readString(in));
+          int executionCount = in.readInt();
+          List<IPluginExecutionMetadata> executions = null;
+          if(executionCount >= 0) {
+            executions = new ArrayList<IPluginExecutionMetadata>(executionCount);
+            for(int j = 0; j < executionCount; j++ ) {
+              executions.add(metadata[in.readInt()]);
+            }
+          }
+          mapping.put(key, executions);
+        }
+      }
+
+      return new MavenProjectFacade(manager, pom, pomFile, configuration, timestamp, artifactKey, modules, packaging,
+          resourceLocations, testResourceLocations, compileSourceLocations, testCompileSourceLocations,
+          outputLocation, testOutputLocation, artifactRepositories, pluginArtifactRepositories, artifacts,
+          lifecycleMappingId, mapping);
+    }
+
+    private PluginExecutionMetadata readExecutionMetadata(DataInputStream in) throws IOException {
+      PluginExecutionMetadata execution = new PluginExecutionMetadata();
+      if(in.readBoolean()) {
+        PluginExecutionFilter filter = new PluginExecutionFilter();
+        filter.setGroupId(readString(in));
+        filter.setArtifactId(readString(in));
+        String versionRange = readString(in);
+        if(versionRange != null) {
+          filter.setVersionRange(versionRange);
+        }
+        int size = in.readInt();
+        Set<String> goals = new LinkedHashSet<String>();
+        for(int i = 0; i < size; i++ ) {
+          goals.add(readString(in));
+        }
+        filter.setGoals(goals);
+        size = in.readInt();
+        Map<String, String> parameters = new LinkedHashMap<String, String>();
+        for(int i = 0; i < size; i++ ) {
+          parameters.put(readString(in), readString(in));
+        }
+        filter.setParameters(parameters);
+        execution.setFilter(filter);
+      }
+      execution.setActionDom(readDom(in));
+      execution.setComment(readString(in));
+      return execution;
+    }
+
+    private Xpp3Dom readDom(DataInputStream in) throws IOException {
+      if(!in.readBoolean()) {
+        return null;
+      }
+      Xpp3Dom dom = new Xpp3Dom(readString(in));
+      dom.setValue(readString(in));
+      int size = in.readInt();
+      for(int i = 0; i < size; i++ ) {
+        dom.setAttribute(readString(in), readString(in));
+      }
+      size = in.readInt();
+      for(int i = 0; i < size; i++ ) {
+        dom.addChild(readDom(in));
+      }
+      return dom;
+    }
+
+    private Set<Capability> readCapabilities(DataInputStream in) throws IOException, ClassNotFoundException {
+      int size = in.readInt();
+      if(size < 0) {
+        return null;
+      }
+      Set<Capability> capabilities = new LinkedHashSet<Capability>();
+      for(int i = 0; i < size; i++ ) {
+        if(in.readByte() == TAG_MAVEN) {
+          capabilities.add(MavenCapability.create(readString(in), readString(in), readString(in)));
+        } else {
+          capabilities.add((Capability) readSerialized(in));
+        }
+      }
+      return capabilities;
+    }
+
+    private Set<RequiredCapability> readRequirements(DataInputStream in) throws IOException, ClassNotFoundException {
+      int size = in.readInt();
+      if(size < 0) {
+        return null;
+      }
+      Set<RequiredCapability> requirements = new LinkedHashSet<RequiredCapability>();
+      for(int i = 0; i < size; i++ ) {
+        if(in.readByte() == TAG_MAVEN) {
+          requirements.add(MavenRequiredCapability.create(readString(in), readString(in), readString(in),
+              readString(in), in.readBoolean(), in.readBoolean()));
+        } else {
+          requirements.add((RequiredCapability) readSerialized(in));
+        }
+      }
+      return requirements;
+    }
+
+    private Object readSerialized(DataInputStream in) throws IOException, ClassNotFoundException {
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      ObjectInputStream is = new StateObjectInputStream(new ByteArrayInputStream(bytes), manager);
+      try {
+        return is.readObject();
+      } finally {
+        is.close();
+      }
+    }
+  }
+
+  private static synchronized PackageAdmin getPackageAdmin() {
+    // TODO inject dependencies already!
+    if(packageAdmin == null) {
+      BundleContext context = MavenPluginActivator.getDefault().getBundleContext();
+      ServiceReference serviceReference = context.getServiceReference(PackageAdmin.class.getName());
+      packageAdmin = (PackageAdmin) context.getService(serviceReference);
+    }
+    return packageAdmin;
+  }
+
+  /**
+   * Object stream that replaces workspace resources with their portable paths and records bundle of each foreign class.
+   */
+  private static class StateObjectOutputStream extends ObjectOutputStream {
+    private final ClassLoader thisClassloader;
+
+    private final PackageAdmin packageAdmin = getPackageAdmin();
+
+    StateObjectOutputStream(OutputStream out, ClassLoader thisClassloader) throws IOException {
+      super(out);
+      this.thisClassloader = thisClassloader;
+      enableReplaceObject(true);
+    }
+
+    protected Object replaceObject(Object o) throws IOException {
+      if(o instanceof IPath) {
+        return new IPathReplace(((IPath) o).toPortableString());
+      } else if(o instanceof IFile) {
+        return new IFileReplace(((IFile) o).getFullPath().toPortableString());
+      } else if(o instanceof ProjectRegistryManager) {
+        return new MavenProjectManagerImplReplace();
+      }
+      return super.replaceObject(o);
+    }
+
+    protected void annotateClass(java.lang.Class<?> cl) throws IOException {
+      // if the class is visible through this classloader, assume it will be during reading stream back
+      try {
+        Class<?> target = cl;
+        while(target.isArray()) {
+          target = target.getComponentType();
+        }
+
+        if(target.isPrimitive() || target.equals(thisClassloader.loadClass(target.getName()))) {
+          writeObject(null); // TODO is there a better way?
+          return;
+        }
+      } catch(ClassNotFoundException ex) {
+        // fall through
+      }
+
+      // foreign class
+      Bundle bundle = packageAdmin.getBundle(cl);
+      if(bundle != null) {
+        writeObject(bundle.getSymbolicName());
+        writeObject(bundle.getVersion().toString());
+      }
+
+      // TODO this will likely fail during desirialization
+    }
+  }
+
+  /**
+   * Object stream that resolves workspace resources and loads foreign classes from bundles recorded by
+   * {@link StateObjectOutputStream}.
+   */
+  private static class StateObjectInputStream extends ObjectInputStream {
+    private final ProjectRegistryManager managerImpl;
+
+    private final PackageAdmin packageAdmin = getPackageAdmin();
+
+    StateObjectInputStream(InputStream in, ProjectRegistryManager managerImpl) throws IOException {
+      super(in);
+      this.managerImpl = managerImpl;
+      enableResolveObject(true);
+    }
+
+    protected Object resolveObject(Object o) throws IOException {
+      if(o instanceof IPathReplace) {
+        return ((IPathReplace) o).getPath();
+      } else if(o instanceof IFileReplace) {
+        return ((IFileReplace) o).getFile();
+      } else if(o instanceof MavenProjectManagerImplReplace) {
+        return managerImpl;
+      }
+      return super.resolveObject(o);
+    }
+
+    protected java.lang.Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException,
+        ClassNotFoundException {
+      String symbolicName = (String) readObject();
+      if(symbolicName == null) {
+        return super.resolveClass(desc);
+      }
+      String versionStr = (String) readObject();
+      Version version = Version.parseVersion(versionStr);
+      VersionRange versionRange = new VersionRange(version, true, version, true);
+      Bundle[] bundles = packageAdmin.getBundles(symbolicName, versionRange.toString());
+      if(bundles == null || bundles.length != 1) {
+        throw new ClassNotFoundException("Could not find bundle " + symbolicName + "/" + version //$NON-NLS-1$ //$NON-NLS-2$
+            + " required to load class " + desc.getName()); //$NON-NLS-1$
+      }
+      return bundles[0].loadClass(desc.getName());
+    }
+  }
+
+  /**
+   * IPath replacement used for object serialization
+   */
+  private static final class IPathReplace implements Serializable {
+    private static final long serialVersionUID = -2361259525684491181L;
+
+    private final String path;
+
+    public IPathReplace(String path) {
+      this.path = path;
+    }
+
+    public IPath getPath() {
+      return Path.fromPortableString(path);
+    }
+  }
+
+  /**
+   * IFile replacement used for object serialization
+   */
+  private static final class IFileReplace implements Serializable {
+    private static final long serialVersionUID = -7266001068347075329L;
+
+    private final String path;
+
+    public IFileReplace(String path) {
+      this.path = path;
+    }
+
+    public IFile getFile() {
+      IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+      return root.getFile(Path.fromPortableString(path));
+    }
+  }
+
+  static final class MavenProjectManagerImplReplace implements Serializable {
+    private static final long serialVersionUID = 1995671440438776471L;
+  }
+}
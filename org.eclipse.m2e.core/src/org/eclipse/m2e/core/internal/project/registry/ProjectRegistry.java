@@ -100,6 +100,7 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
     }
 
     replaceWith(newState);
+    newState.disownCollections();
 
     version++ ;
 
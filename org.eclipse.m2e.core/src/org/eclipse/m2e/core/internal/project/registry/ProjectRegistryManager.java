@@ -12,6 +12,7 @@
 package org.eclipse.m2e.core.internal.project.registry;
 
 import java.io.File;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,15 +30,29 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Charsets;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -51,8 +66,10 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobManager;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.osgi.util.NLS;
 
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
@@ -62,8 +79,10 @@ import org.apache.maven.execution.DefaultMavenExecutionResult;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.lifecycle.MavenExecutionPlan;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
 import org.apache.maven.plugin.ExtensionRealmCache;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.PluginArtifactsCache;
@@ -74,11 +93,15 @@ import org.apache.maven.project.ProjectRealmCache;
 import org.apache.maven.project.artifact.MavenMetadataCache;
 import org.apache.maven.repository.DelegatingLocalArtifactRepository;
 
+import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.embedder.ICallable;
 import org.eclipse.m2e.core.embedder.ILocalRepositoryListener;
 import org.eclipse.m2e.core.embedder.IMaven;
+import org.eclipse.m2e.core.embedder.IMavenConfiguration;
+import org.eclipse.m2e.core.embedder.IMavenConfigurationChangeListener;
 import org.eclipse.m2e.core.embedder.IMavenExecutionContext;
+import org.eclipse.m2e.core.embedder.MavenConfigurationChangeEvent;
 import org.eclipse.m2e.core.internal.ExtensionReader;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.Messages;
@@ -86,15 +109,22 @@ import org.eclipse.m2e.core.internal.URLConnectionCaches;
 import org.eclipse.m2e.core.internal.builder.MavenBuilder;
 import org.eclipse.m2e.core.internal.embedder.MavenExecutionContext;
 import org.eclipse.m2e.core.internal.embedder.MavenImpl;
+import org.eclipse.m2e.core.internal.jobs.WorkerProgressMonitor;
 import org.eclipse.m2e.core.internal.lifecyclemapping.LifecycleMappingFactory;
 import org.eclipse.m2e.core.internal.lifecyclemapping.LifecycleMappingResult;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionMetadata;
 import org.eclipse.m2e.core.internal.markers.IMavenMarkerManager;
 import org.eclipse.m2e.core.internal.markers.MarkerUtils;
+import org.eclipse.m2e.core.internal.preferences.MavenPreferenceConstants;
+import org.eclipse.m2e.core.internal.preferences.ProjectCachePolicy;
 import org.eclipse.m2e.core.internal.project.DependencyResolutionContext;
+import org.eclipse.m2e.core.internal.project.EclipseExtensionRealmCache;
+import org.eclipse.m2e.core.internal.project.EclipseMavenMetadataCache;
+import org.eclipse.m2e.core.internal.project.EclipsePluginRealmCache;
 import org.eclipse.m2e.core.internal.project.IManagedCache;
 import org.eclipse.m2e.core.internal.project.ResolverConfigurationIO;
 import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
@@ -108,7 +138,7 @@ import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
  * This class keeps track of all maven projects present in the workspace and provides mapping between Maven and the
  * workspace.
  */
-public class ProjectRegistryManager {
+public class ProjectRegistryManager implements IMavenConfigurationChangeListener {
   static final Logger log = LoggerFactory.getLogger(ProjectRegistryManager.class);
 
   static final String ARTIFACT_TYPE_POM = "pom"; //$NON-NLS-1$
@@ -135,6 +165,15 @@ public class ProjectRegistryManager {
 
   private static final String CTX_MAVENPROJECTS = ProjectRegistryManager.class.getName() + "/mavenProjects";
 
+  private static final long STATE_COMPACTION_DELAY = 5000L;
+
+  /**
+   * Maximum number of events {@link IMavenProjectChangedBatchListener}s are notified with at once.
+   */
+  private static final int EVENT_BATCH_SIZE = 20;
+
+  private static final long CHECKPOINT_EXPIRY = 60 * 1000L;
+
   private final ProjectRegistry projectRegistry;
 
   /*package*/final MavenImpl maven;
@@ -147,12 +186,56 @@ public class ProjectRegistryManager {
 
   private volatile Thread syncRefreshThread;
 
+  /**
+   * Serializes lifecycle mapping setup and contributed dependency resolvers of concurrent registry refresh workers.
+   */
+  private final Object lifecycleMappingLock = new Object();
+
   /**
    * Backwards compatibility with clients that request setup MojoExecution outside of {@link MavenBuilder} execution.
    */
   private final Map<MavenProjectFacade, MavenProject> legacyMavenProjects = new IdentityHashMap<MavenProjectFacade, MavenProject>();
 
-  private final Cache<MavenProjectFacade, MavenProject> mavenProjectCache;
+  /**
+   * Replaced when project cache preferences change, see
+   * {@link #mavenConfigurationChange(MavenConfigurationChangeEvent)}.
+   */
+  private volatile Cache<MavenProjectFacade, MavenProject> mavenProjectCache;
+
+  /**
+   * Statistics of project caches replaced so far.
+   */
+  private volatile CacheStats replacedProjectCacheStats = new CacheStats(0, 0, 0, 0, 0, 0);
+
+  /**
+   * Facades read by registry refreshes that have not been applied yet. Stale refreshes are restarted from scratch, the
+   * checkpoints let restarted refresh reuse facades of poms whose inputs did not change in the meantime.
+   */
+  private final Cache<IFile, RefreshCheckpoint> refreshCheckpoints = CacheBuilder.newBuilder()
+      .expireAfterWrite(CHECKPOINT_EXPIRY, TimeUnit.MILLISECONDS).softValues().build();
+
+  /**
+   * Hash of raw and effective model of the MavenProject each facade was read from. The hash is only calculated for poms
+   * other projects inherit from or import, see {@link #isModelUnchanged}. Facades restored from workspace state do not
+   * have the hash.
+   */
+  private final Cache<MavenProjectFacade, HashCode> modelHashes = CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * Fingerprint of the inputs each facade was read from. Facades restored from workspace state do not have the
+   * fingerprint.
+   */
+  private final Cache<MavenProjectFacade, PomFingerprint> fingerprints = CacheBuilder.newBuilder().weakKeys().build();
+
+  /**
+   * Merges workspace state journal into full workspace state in background.
+   */
+  private final Job stateCompactionJob = new Job(Messages.ProjectRegistryManager_task_saving) {
+    protected IStatus run(IProgressMonitor monitor) {
+      writeWorkspaceState();
+      return Status.OK_STATUS;
+    }
+  };
 
   public ProjectRegistryManager(MavenImpl maven, File stateLocationDir, boolean readState,
       IMavenMarkerManager mavenMarkerManager) {
@@ -165,6 +248,8 @@ public class ProjectRegistryManager {
     this.projectRegistry = (state != null && state.isValid()) ? state : new ProjectRegistry();
 
     this.mavenProjectCache = createProjectCache();
+
+    this.stateCompactionJob.setSystem(true);
   }
 
   /**
@@ -328,16 +413,20 @@ public class ProjectRegistryManager {
         }
         // TODO remove=false?
         Set<IFile> refresh = new LinkedHashSet<IFile>();
-        if(installedArtifacts.add(artifact)) {
-          refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenParent(artifact), true));
-          refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifact(artifact), true));
-          refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifactImport(artifact), true));
-        }
-        if(installedArtifacts.add(baseArtifact)) {
-          refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenParent(baseArtifact), true));
-          refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifact(baseArtifact), true));
-          refresh
-              .addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifactImport(baseArtifact), true));
+        // artifacts can be installed by concurrent phase 2 workers
+        synchronized(newState) {
+          if(installedArtifacts.add(artifact)) {
+            refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenParent(artifact), true));
+            refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifact(artifact), true));
+            refresh
+                .addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifactImport(artifact), true));
+          }
+          if(installedArtifacts.add(baseArtifact)) {
+            refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenParent(baseArtifact), true));
+            refresh.addAll(newState.getVersionedDependents(MavenCapability.createMavenArtifact(baseArtifact), true));
+            refresh.addAll(
+                newState.getVersionedDependents(MavenCapability.createMavenArtifactImport(baseArtifact), true));
+          }
         }
         if(!refresh.isEmpty()) {
           log.debug("Automatic refresh. artifact={}/{}. projects={}", new Object[] {baseArtifact, artifact, refresh});
@@ -354,6 +443,15 @@ public class ProjectRegistryManager {
     }
 
     log.debug("Refreshed: {}", pomFiles); //$NON-NLS-1$
+    if(MavenPlugin.getMavenConfiguration().isDebugOutput()) {
+      // Maven console only shows m2e messages of info level and above
+      log.info("Maven project cache: {}", getProjectCacheStats()); //$NON-NLS-1$
+    } else if(log.isDebugEnabled()) {
+      log.debug("Maven project cache: {}", getProjectCacheStats()); //$NON-NLS-1$
+    }
+    if(log.isDebugEnabled()) {
+      logMavenCacheStatistics();
+    }
   }
 
   private void refresh(final MutableProjectRegistry newState, final DependencyResolutionContext context,
@@ -383,8 +481,15 @@ public class ProjectRegistryManager {
         putMavenProject(oldFacade, null); // maintain maven project cache
       }
       MavenProjectFacade newFacade = null;
+      boolean modelUnchanged = false;
       if(pom.isAccessible() && pom.getProject().hasNature(IMavenConstants.NATURE_ID)) {
-        if(oldFacade != null) {
+        newFacade = readMavenProjectFacade(pom, context, newState, monitor);
+
+        // dependents only need to be read again if the pom model has actually changed
+        modelUnchanged = isModelUnchanged(newState, oldFacade, newFacade);
+        if(modelUnchanged) {
+          log.debug("Model of {} did not change, dependent projects are not refreshed", pom); //$NON-NLS-1$
+        } else if(oldFacade != null) {
           // refresh old child modules
           MavenCapability mavenParentCapability = MavenCapability.createMavenParent(oldFacade.getArtifactKey());
           context.forcePomFiles(newState.getVersionedDependents(mavenParentCapability, true));
@@ -394,8 +499,6 @@ public class ProjectRegistryManager {
               .createMavenArtifactImport(oldFacade.getArtifactKey());
           context.forcePomFiles(newState.getVersionedDependents(mavenArtifactImportCapability, true));
         }
-
-        newFacade = readMavenProjectFacade(pom, context, newState, monitor);
       } else {
         // refresh children of deleted/closed parent
         if(oldFacade != null) {
@@ -411,14 +514,16 @@ public class ProjectRegistryManager {
       newState.setProject(pom, newFacade);
 
       if(newFacade != null) {
-        // refresh new child modules
         MavenCapability mavenParentCapability = MavenCapability.createMavenParent(newFacade.getArtifactKey());
-        context.forcePomFiles(newState.getVersionedDependents(mavenParentCapability, true));
+        if(!modelUnchanged) {
+          // refresh new child modules
+          context.forcePomFiles(newState.getVersionedDependents(mavenParentCapability, true));
 
-        // refresh projects that import dependencyManagement from this one
-        MavenCapability mavenArtifactImportCapability = MavenCapability
-            .createMavenArtifactImport(newFacade.getArtifactKey());
-        context.forcePomFiles(newState.getVersionedDependents(mavenArtifactImportCapability, true));
+          // refresh projects that import dependencyManagement from this one
+          MavenCapability mavenArtifactImportCapability = MavenCapability
+              .createMavenArtifactImport(newFacade.getArtifactKey());
+          context.forcePomFiles(newState.getVersionedDependents(mavenArtifactImportCapability, true));
+        }
 
         Set<Capability> capabilities = new LinkedHashSet<Capability>();
         capabilities.add(mavenParentCapability);
@@ -448,69 +553,388 @@ public class ProjectRegistryManager {
 
     // phase 2: resolve project dependencies
     Set<IFile> secondPhaseProcessed = new HashSet<IFile>();
-    while(!context.isEmpty()) {
-      if(monitor.isCanceled()) {
-        throw new OperationCanceledException();
-      }
+    Map<IFile, Set<RequiredCapability>> declaredRequirements = new HashMap<IFile, Set<RequiredCapability>>();
+    int parallelism = Math.max(1, getRefreshParallelism());
+    ExecutorService executor = parallelism > 1 ? newRefreshExecutor(parallelism) : null;
+    try {
+      while(!context.isEmpty()) {
+        if(monitor.isCanceled()) {
+          throw new OperationCanceledException();
+        }
 
-      if(newState.isStale() || (syncRefreshThread != null && syncRefreshThread != Thread.currentThread())) {
-        throw new StaleMutableProjectRegistryException();
-      }
+        if(newState.isStale() || (syncRefreshThread != null && syncRefreshThread != Thread.currentThread())) {
+          throw new StaleMutableProjectRegistryException();
+        }
 
-      final IFile pom = context.pop();
+        List<IFile> batch = nextIndependentBatch(newState, context, secondPhaseProcessed, originalRequirements,
+            declaredRequirements, parallelism);
+        if(batch.size() > 1) {
+          refreshPhase2(newState, context, originalCapabilities, originalRequirements, batch, executor, monitor);
+        } else if(!batch.isEmpty()) {
+          refreshPhase2(newState, context, originalCapabilities, originalRequirements, batch.get(0), monitor);
+        }
 
-      if(!secondPhaseProcessed.add(pom)) {
-        // because workspace contents is fully known at this point, each project needs to be resolved at most once 
+        monitor.worked(batch.size());
+      }
+    } finally {
+      if(executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Removes and returns up to <code>maxSize</code> poms from the head of the resolution context that can be resolved
+   * concurrently, i.e. none of the returned poms requires capabilities provided by any other returned pom. Poms that
+   * have already been resolved during the second phase are skipped. Batches are taken from the head of the context in
+   * order, so poms are applied to the registry state in the same order as by serial refresh.
+   */
+  List<IFile> nextIndependentBatch(MutableProjectRegistry newState, DependencyResolutionContext context,
+      Set<IFile> processed, Map<IFile, Set<RequiredCapability>> originalRequirements,
+      Map<IFile, Set<RequiredCapability>> declaredRequirements, int maxSize) {
+    List<IFile> batch = new ArrayList<IFile>();
+    Set<Capability> batchCapabilities = new HashSet<Capability>();
+    Set<RequiredCapability> batchRequirements = new HashSet<RequiredCapability>();
+    while(batch.size() < maxSize && !context.isEmpty()) {
+      IFile pom = context.peek();
+      if(processed.contains(pom)) {
+        // because workspace contents is fully known at this point, each project needs to be resolved at most once
+        context.pop();
         continue;
       }
+      if(maxSize > 1) {
+        // phase 1 only records project structure requirements, dependencies known before this refresh and dependencies
+        // declared in poms are used to approximate the rest of the requirement graph
+        Set<Capability> capabilities = new HashSet<Capability>();
+        addAll(capabilities, newState.getProjectCapabilities(pom));
+        Set<RequiredCapability> requirements = new HashSet<RequiredCapability>();
+        addAll(requirements, newState.getProjectRequirements(pom));
+        addAll(requirements, originalRequirements.get(pom));
+        addAll(requirements, getDeclaredRequirements(newState, pom, declaredRequirements));
+        if(!batch.isEmpty()
+            && (isRequired(batchRequirements, capabilities) || isRequired(requirements, batchCapabilities))) {
+          break;
+        }
+        batchCapabilities.addAll(capabilities);
+        batchRequirements.addAll(requirements);
+      }
+      context.pop();
+      processed.add(pom);
+      batch.add(pom);
+    }
+    return batch;
+  }
 
-      MavenProjectFacade newFacade = null;
-      if(pom.isAccessible() && pom.getProject().hasNature(IMavenConstants.NATURE_ID)) {
-        newFacade = newState.getProjectFacade(pom);
+  /**
+   * Returns requirements on the artifacts declared as dependencies by the pom and, transitively, by the workspace
+   * projects it depends on. Makes up for the requirement graph of projects that were never resolved before, i.e. on
+   * first import, when no dependencies are known before this refresh.
+   */
+  private Set<RequiredCapability> getDeclaredRequirements(MutableProjectRegistry newState, IFile pom,
+      Map<IFile, Set<RequiredCapability>> declaredRequirements) {
+    Set<RequiredCapability> requirements = declaredRequirements.get(pom);
+    if(requirements != null) {
+      return requirements;
+    }
+    requirements = new HashSet<RequiredCapability>();
+    // registered before recursion, projects of dependency cycles see partial requirements of each other
+    declaredRequirements.put(pom, requirements);
+    MavenProjectFacade facade = newState.getProjectFacade(pom);
+    MavenProject mavenProject = facade != null ? getMavenProject(facade) : null;
+    if(mavenProject == null) {
+      return requirements;
+    }
+    for(Dependency dependency : mavenProject.getDependencies()) {
+      if(dependency.getVersion() != null) {
+        ArtifactKey dependencyKey = new ArtifactKey(dependency.getGroupId(), dependency.getArtifactId(),
+            dependency.getVersion(), null);
+        requirements.add(MavenRequiredCapability.createMavenArtifact(dependencyKey, dependency.getScope(),
+            dependency.isOptional()));
       }
-      if(newFacade != null) {
-        MavenProject mavenProject = getMavenProject(newFacade);
-        if(mavenProject == null) {
-          // facade from workspace state that has not been refreshed yet 
-          newFacade = readMavenProjectFacade(pom, context, newState, monitor);
-        } else {
-          // recreate facade instance to trigger project changed event
-          // this is only necessary for facades that are refreshed because their dependencies changed
-          // but this is relatively cheap, so all facades are recreated here
-          putMavenProject(newFacade, null);
-          newFacade = new MavenProjectFacade(newFacade);
-          putMavenProject(newFacade, mavenProject);
+      for(Collection<IFile> dependencyPoms : newState.getWorkspaceArtifacts(dependency.getGroupId(),
+          dependency.getArtifactId()).values()) {
+        for(IFile dependencyPom : dependencyPoms) {
+          requirements.addAll(getDeclaredRequirements(newState, dependencyPom, declaredRequirements));
         }
       }
+    }
+    return requirements;
+  }
 
-      if(newFacade != null) {
-        final MavenProjectFacade _newFacade = newFacade;
-        final MavenProject mavenProject = getMavenProject(newFacade);
-        final ResolverConfiguration resolverConfiguration = _newFacade.getResolverConfiguration();
-        final ICallable<Void> callable = new ICallable<Void>() {
-          public Void call(IMavenExecutionContext executionContext, IProgressMonitor monitor) throws CoreException {
-            refreshPhase2(newState, context, originalCapabilities, originalRequirements, pom, _newFacade, monitor);
-            return null;
+  private static <T> void addAll(Set<T> to, Set<T> from) {
+    if(from != null) {
+      to.addAll(from);
+    }
+  }
+
+  private static boolean isRequired(Set<RequiredCapability> requirements, Set<Capability> capabilities) {
+    for(RequiredCapability requirement : requirements) {
+      for(Capability capability : capabilities) {
+        if(requirement.getVersionlessKey().equals(capability.getVersionlessKey())
+            && requirement.isPotentialMatch(capability, false)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void refreshPhase2(final MutableProjectRegistry newState, final DependencyResolutionContext context,
+      final Map<IFile, Set<Capability>> originalCapabilities,
+      final Map<IFile, Set<RequiredCapability>> originalRequirements, final IFile pom, IProgressMonitor monitor)
+      throws CoreException {
+    MavenProjectFacade newFacade = getPhase2Facade(newState, context, pom, monitor);
+    if(newFacade != null) {
+      final MavenProjectFacade _newFacade = newFacade;
+      final MavenProject mavenProject = getMavenProject(newFacade);
+      final ResolverConfiguration resolverConfiguration = _newFacade.getResolverConfiguration();
+      final ICallable<Void> callable = new ICallable<Void>() {
+        public Void call(IMavenExecutionContext executionContext, IProgressMonitor monitor) throws CoreException {
+          refreshPhase2(newState, context, originalCapabilities, originalRequirements, pom, _newFacade, monitor);
+          return null;
+        }
+      };
+      createExecutionContext(newState, pom, resolverConfiguration).execute(mavenProject, callable, monitor);
+    } else {
+      refreshPhase2(newState, context, originalCapabilities, originalRequirements, pom, newFacade, monitor);
+    }
+  }
+
+  /**
+   * Resolves dependencies of the given independent poms concurrently. Each pom is resolved on one of the executor
+   * threads, in its own Maven execution context derived from the calling thread's context. Worker contexts share
+   * repository session data and cache with the calling context, and report progress and check for cancellation
+   * through the calling thread's monitor. Resolution results are applied to the registry state on the calling thread,
+   * in the order the poms were scheduled, which keeps registry state and project change events independent from the
+   * order in which resolution completes.
+   */
+  private void refreshPhase2(final MutableProjectRegistry newState, DependencyResolutionContext context,
+      Map<IFile, Set<Capability>> originalCapabilities, Map<IFile, Set<RequiredCapability>> originalRequirements,
+      List<IFile> poms, ExecutorService executor, IProgressMonitor monitor) throws CoreException {
+    final MavenExecutionContext executionContext = maven.getExecutionContext();
+    final IProgressMonitor workerMonitor = new WorkerProgressMonitor(monitor);
+
+    List<MavenProjectFacade> facades = new ArrayList<MavenProjectFacade>();
+    List<Future<ResolutionResult>> futures = new ArrayList<Future<ResolutionResult>>();
+    for(final IFile pom : poms) {
+      final MavenProjectFacade newFacade = getPhase2Facade(newState, context, pom, monitor);
+      final MavenProject mavenProject = newFacade != null ? getMavenProject(newFacade) : null;
+      final ICallable<ResolutionResult> callable = new ICallable<ResolutionResult>() {
+        public ResolutionResult call(IMavenExecutionContext executionContext, IProgressMonitor monitor)
+            throws CoreException {
+          if(newFacade == null) {
+            return resolvePhase2(newState, pom, null, monitor);
           }
-        };
-        createExecutionContext(newState, pom, resolverConfiguration).execute(mavenProject, callable, monitor);
+          // facade-to-project association is kept per top-level execution context, i.e. per worker
+          putMavenProject(newFacade, mavenProject);
+          return createExecutionContext(newState, pom, newFacade.getResolverConfiguration()).execute(mavenProject,
+              new ICallable<ResolutionResult>() {
+                public ResolutionResult call(IMavenExecutionContext executionContext, IProgressMonitor monitor)
+                    throws CoreException {
+                  return resolvePhase2(newState, pom, newFacade, monitor);
+                }
+              }, monitor);
+        }
+      };
+      facades.add(newFacade);
+      futures.add(executor.submit(new Callable<ResolutionResult>() {
+        public ResolutionResult call() throws CoreException {
+          IMavenExecutionContext workerContext = executionContext != null ? executionContext.newWorkerContext()
+              : maven.createExecutionContext();
+          return workerContext.execute(callable, workerMonitor);
+        }
+      }));
+    }
+
+    // wait for all workers before touching the registry state, even if some of them failed
+    List<ResolutionResult> results = new ArrayList<ResolutionResult>();
+    Throwable failure = null;
+    for(Future<ResolutionResult> future : futures) {
+      try {
+        results.add(future.get());
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        if(failure == null) {
+          failure = new OperationCanceledException();
+        }
+      } catch(ExecutionException ex) {
+        if(failure == null) {
+          failure = ex.getCause();
+        }
+      }
+    }
+    if(failure instanceof CoreException) {
+      throw (CoreException) failure;
+    } else if(failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if(failure != null) {
+      throw new RuntimeException(failure);
+    }
+
+    for(int i = 0; i < poms.size(); i++ ) {
+      ResolutionResult result = results.get(i);
+      applyPhase2(newState, context, originalCapabilities, originalRequirements, poms.get(i), facades.get(i),
+          result.capabilities, result.requirements);
+    }
+  }
+
+  private static ExecutorService newRefreshExecutor(int parallelism) {
+    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("M2E project refresh %d") //$NON-NLS-1$
+        .setDaemon(true).build();
+    return Executors.newFixedThreadPool(parallelism, threadFactory);
+  }
+
+  private int getRefreshParallelism() {
+    return MavenPlugin.getMavenConfiguration().getRefreshParallelism();
+  }
+
+  /**
+   * Returns project facade to be resolved during the second phase of registry refresh, or <code>null</code> if the pom
+   * does not correspond to an accessible Maven project.
+   */
+  private MavenProjectFacade getPhase2Facade(MutableProjectRegistry newState, DependencyResolutionContext context,
+      IFile pom, IProgressMonitor monitor) throws CoreException {
+    MavenProjectFacade newFacade = null;
+    if(pom.isAccessible() && pom.getProject().hasNature(IMavenConstants.NATURE_ID)) {
+      newFacade = newState.getProjectFacade(pom);
+    }
+    if(newFacade != null) {
+      MavenProject mavenProject = getMavenProject(newFacade);
+      if(mavenProject == null) {
+        // facade from workspace state that has not been refreshed yet 
+        newFacade = readMavenProjectFacade(pom, context, newState, monitor);
       } else {
-        refreshPhase2(newState, context, originalCapabilities, originalRequirements, pom, newFacade, monitor);
+        // recreate facade instance to trigger project changed event
+        // this is only necessary for facades that are refreshed because their dependencies changed
+        // but this is relatively cheap, so all facades are recreated here
+        putMavenProject(newFacade, null);
+        HashCode modelHash = modelHashes.getIfPresent(newFacade);
+        PomFingerprint fingerprint = fingerprints.getIfPresent(newFacade);
+        newFacade = new MavenProjectFacade(newFacade);
+        putMavenProject(newFacade, mavenProject);
+        if(modelHash != null) {
+          modelHashes.put(newFacade, modelHash);
+        }
+        if(fingerprint != null) {
+          fingerprints.put(newFacade, fingerprint);
+        }
       }
+    }
+    return newFacade;
+  }
 
-      monitor.worked(1);
+  /**
+   * Returns {@code true} if the new facade was read from the same raw and effective model as the old facade. Raw model
+   * is compared too because child modules inherit uninterpolated parent model.
+   * <p>
+   * Facades read from identical inputs have the same model, the models are only hashed if the inputs changed. Model
+   * hash is not calculated for poms no other project inherits from or imports, there are no dependents to skip.
+   */
+  private boolean isModelUnchanged(MutableProjectRegistry newState, MavenProjectFacade oldFacade,
+      MavenProjectFacade newFacade) throws CoreException {
+    if(oldFacade == null || newFacade == null || isForceDependencyUpdate()
+        || !oldFacade.getArtifactKey().equals(newFacade.getArtifactKey())) {
+      return false;
+    }
+    HashCode oldHash = modelHashes.getIfPresent(oldFacade);
+    PomFingerprint oldFingerprint = fingerprints.getIfPresent(oldFacade);
+    if(oldFingerprint != null && oldFingerprint.equals(fingerprints.getIfPresent(newFacade))) {
+      if(oldHash != null) {
+        modelHashes.put(newFacade, oldHash);
+      }
+      return true;
+    }
+    if(!hasDependents(newState, newFacade.getArtifactKey())) {
+      return false;
+    }
+    MavenProject mavenProject = getMavenProject(newFacade);
+    HashCode newHash = mavenProject != null ? hashModel(mavenProject, newFacade.getResolverConfiguration()) : null;
+    if(newHash == null) {
+      return false;
+    }
+    modelHashes.put(newFacade, newHash);
+    return newHash.equals(oldHash);
+  }
+
+  private static boolean hasDependents(MutableProjectRegistry newState, ArtifactKey artifactKey) {
+    return !newState.getVersionedDependents(MavenCapability.createMavenParent(artifactKey), false).isEmpty()
+        || !newState.getVersionedDependents(MavenCapability.createMavenArtifactImport(artifactKey), false).isEmpty();
+  }
+
+  private HashCode hashModel(MavenProject mavenProject, ResolverConfiguration resolverConfiguration) {
+    Hasher hasher = Hashing.sha1().newHasher();
+    try {
+      OutputStream out = Funnels.asOutputStream(hasher);
+      if(mavenProject.getOriginalModel() != null) {
+        maven.writeModel(mavenProject.getOriginalModel(), out);
+      }
+      maven.writeModel(mavenProject.getModel(), out);
+    } catch(CoreException ex) {
+      log.debug("Could not calculate model hash of {}", mavenProject, ex); //$NON-NLS-1$
+      return null;
+    }
+    for(Profile profile : mavenProject.getActiveProfiles()) {
+      hasher.putString(profile.getId(), Charsets.UTF_8);
+    }
+    hasher.putBoolean(resolverConfiguration.shouldResolveWorkspaceProjects());
+    hasher.putString(String.valueOf(resolverConfiguration.getLifecycleMappingId()), Charsets.UTF_8);
+    return hasher.hash();
+  }
+
+  /**
+   * Project facade read during registry refresh along with fingerprint of the inputs it was read from.
+   */
+  private static class RefreshCheckpoint {
+    final PomFingerprint fingerprint;
+
+    final MavenProjectFacade facade;
+
+    final MavenProject mavenProject;
+
+    RefreshCheckpoint(PomFingerprint fingerprint, MavenProjectFacade facade, MavenProject mavenProject) {
+      this.fingerprint = fingerprint;
+      this.facade = facade;
+      this.mavenProject = mavenProject;
+    }
+  }
+
+  /**
+   * Capabilities and requirements of a project calculated during the second phase of registry refresh.
+   */
+  static class ResolutionResult {
+    final Set<Capability> capabilities;
+
+    final Set<RequiredCapability> requirements;
+
+    ResolutionResult(Set<Capability> capabilities, Set<RequiredCapability> requirements) {
+      this.capabilities = capabilities;
+      this.requirements = requirements;
     }
   }
 
   void refreshPhase2(MutableProjectRegistry newState, DependencyResolutionContext context,
       Map<IFile, Set<Capability>> originalCapabilities, Map<IFile, Set<RequiredCapability>> originalRequirements,
       IFile pom, MavenProjectFacade newFacade, IProgressMonitor monitor) throws CoreException {
+    ResolutionResult result = resolvePhase2(newState, pom, newFacade, monitor);
+    applyPhase2(newState, context, originalCapabilities, originalRequirements, pom, newFacade, result.capabilities,
+        result.requirements);
+  }
+
+  /**
+   * Calculates project capabilities and requirements. This method only reads registry state and can be called
+   * concurrently for independent projects. Lifecycle mapping setup and dependency resolvers contributed by lifecycle
+   * mappings are not known to be thread-safe and run one at a time.
+   */
+  private ResolutionResult resolvePhase2(MutableProjectRegistry newState, IFile pom, MavenProjectFacade newFacade,
+      IProgressMonitor monitor) throws CoreException {
     Set<Capability> capabilities = null;
     Set<RequiredCapability> requirements = null;
     if(newFacade != null) {
       monitor.subTask(NLS.bind(Messages.ProjectRegistryManager_task_project, newFacade.getProject().getName()));
 
-      setupLifecycleMapping(newState, monitor, newFacade);
+      synchronized(lifecycleMappingLock) {
+        setupLifecycleMapping(newState, monitor, newFacade);
+      }
 
       capabilities = new LinkedHashSet<Capability>();
       requirements = new LinkedHashSet<RequiredCapability>();
@@ -524,16 +948,15 @@ public class ProjectRegistryManager {
       // maven projects always have these requirements
       DefaultMavenDependencyResolver.addProjectStructureRequirements(requirements, getMavenProject(newFacade));
 
-      AbstractMavenDependencyResolver resolver = getMavenDependencyResolver(newFacade, monitor);
-      resolver.setContextProjectRegistry(newState);
-      try {
-        resolver.resolveProjectDependencies(newFacade, capabilities, requirements, monitor);
-      } finally {
-        resolver.setContextProjectRegistry(null);
+      if(LifecycleMappingFactory.getLifecycleMapping(newFacade) instanceof ILifecycleMapping2) {
+        // contributed resolvers may be shared by projects and keep the context registry in a field
+        synchronized(lifecycleMappingLock) {
+          resolveProjectDependencies(newState, newFacade, capabilities, requirements, monitor);
+        }
+      } else {
+        resolveProjectDependencies(newState, newFacade, capabilities, requirements, monitor);
       }
 
-      newState.setProject(pom, newFacade);
-
       newFacade.setMavenProjectArtifacts(getMavenProject(newFacade));
     } else {
       if(pom.isAccessible() && pom.getProject().hasNature(IMavenConstants.NATURE_ID)) {
@@ -555,6 +978,31 @@ public class ProjectRegistryManager {
         }
       }
     }
+    return new ResolutionResult(capabilities, requirements);
+  }
+
+  private void resolveProjectDependencies(MutableProjectRegistry newState, MavenProjectFacade newFacade,
+      Set<Capability> capabilities, Set<RequiredCapability> requirements, IProgressMonitor monitor)
+      throws CoreException {
+    AbstractMavenDependencyResolver resolver = getMavenDependencyResolver(newFacade, monitor);
+    resolver.setContextProjectRegistry(newState);
+    try {
+      resolver.resolveProjectDependencies(newFacade, capabilities, requirements, monitor);
+    } finally {
+      resolver.setContextProjectRegistry(null);
+    }
+  }
+
+  /**
+   * Updates registry state with resolved project capabilities and requirements and schedules refresh of affected
+   * dependents.
+   */
+  private void applyPhase2(MutableProjectRegistry newState, DependencyResolutionContext context,
+      Map<IFile, Set<Capability>> originalCapabilities, Map<IFile, Set<RequiredCapability>> originalRequirements,
+      IFile pom, MavenProjectFacade newFacade, Set<Capability> capabilities, Set<RequiredCapability> requirements) {
+    if(newFacade != null) {
+      newState.setProject(pom, newFacade);
+    }
 
     Set<Capability> oldCapabilities = newState.setCapabilities(pom, capabilities);
     if(originalCapabilities.containsKey(pom)) {
@@ -691,13 +1139,21 @@ public class ProjectRegistryManager {
 
   private MavenProjectFacade readMavenProjectFacade(final IFile pom, DependencyResolutionContext context,
       final MutableProjectRegistry state, final IProgressMonitor monitor) throws CoreException {
-    markerManager.deleteMarkers(pom, IMavenConstants.MARKER_POM_LOADING_ID);
-
     final ResolverConfiguration resolverConfiguration = ResolverConfigurationIO
         .readResolverConfiguration(pom.getProject());
 
     return execute(state, pom, resolverConfiguration, new ICallable<MavenProjectFacade>() {
       public MavenProjectFacade call(IMavenExecutionContext context, IProgressMonitor monitor) throws CoreException {
+        RefreshCheckpoint checkpoint = refreshCheckpoints.getIfPresent(pom);
+        if(checkpoint != null
+            && checkpoint.fingerprint.isUpToDate(state, resolverConfiguration, context.getExecutionRequest())) {
+          log.debug("Reusing project facade read by stale registry refresh {}", pom); //$NON-NLS-1$
+          putMavenProject(checkpoint.facade, checkpoint.mavenProject); // maintain maven project cache
+          return checkpoint.facade;
+        }
+
+        markerManager.deleteMarkers(pom, IMavenConstants.MARKER_POM_LOADING_ID);
+
         MavenProject mavenProject = null;
         MavenExecutionResult mavenResult = null;
         if(pom.isAccessible()) {
@@ -717,6 +1173,13 @@ public class ProjectRegistryManager {
 
         putMavenProject(mavenProjectFacade, mavenProject); // maintain maven project cache
 
+        PomFingerprint fingerprint = PomFingerprint.create(state, mavenProject, resolverConfiguration,
+            context.getExecutionRequest());
+        if(fingerprint != null) {
+          fingerprints.put(mavenProjectFacade, fingerprint);
+          refreshCheckpoints.put(pom, new RefreshCheckpoint(fingerprint, mavenProjectFacade, mavenProject));
+        }
+
         return mavenProjectFacade;
       }
     }, monitor);
@@ -774,13 +1237,91 @@ public class ProjectRegistryManager {
   public void notifyProjectChangeListeners(List<MavenProjectChangedEvent> events, IProgressMonitor monitor) {
     if(events.size() > 0) {
       MavenProjectChangedEvent[] eventsArray = events.toArray(new MavenProjectChangedEvent[events.size()]);
-      ArrayList<IMavenProjectChangedListener> listeners = new ArrayList<IMavenProjectChangedListener>();
-      synchronized(this.projectChangeListeners) {
-        listeners.addAll(this.projectChangeListeners);
+      for(IMavenProjectChangedListener listener : getProjectChangeListeners()) {
+        if(listener instanceof IMavenProjectChangedBatchListener) {
+          for(List<MavenProjectChangedEvent> batch : Lists.partition(events, EVENT_BATCH_SIZE)) {
+            listener.mavenProjectChanged(batch.toArray(new MavenProjectChangedEvent[batch.size()]), monitor);
+          }
+        } else {
+          listener.mavenProjectChanged(eventsArray, monitor);
+        }
+      }
+    }
+  }
+
+  private List<IMavenProjectChangedListener> getProjectChangeListeners() {
+    ArrayList<IMavenProjectChangedListener> listeners = new ArrayList<IMavenProjectChangedListener>();
+    synchronized(this.projectChangeListeners) {
+      listeners.addAll(this.projectChangeListeners);
+    }
+    listeners.addAll(ExtensionReader.readProjectChangedEventListenerExtentions());
+    return listeners;
+  }
+
+  /**
+   * Applies mutable project registry to the primary project registry and notifies project change listeners. The
+   * registry is applied while holding scheduling rule of the changed projects only, so workspace operations on other
+   * projects are not blocked. {@link IMavenProjectChangedBatchListener}s are then notified with batches of the events,
+   * each batch while holding scheduling rule of the projects referenced by its events. Other listeners are notified
+   * last, with all events and while holding workspace root's lock.
+   * 
+   * @throws StaleMutableProjectRegistryException if primary project registry was modified after mutable registry has
+   *           been created
+   */
+  void applyAndNotifyProjectChangeListeners(MutableProjectRegistry newState, IProgressMonitor monitor)
+      throws CoreException {
+    IJobManager jobManager = Job.getJobManager();
+    List<MavenProjectChangedEvent> events;
+    ISchedulingRule applyRule = getApplyRule(newState);
+    jobManager.beginRule(applyRule, monitor);
+    try {
+      events = applyProjectRegistry(newState);
+    } finally {
+      jobManager.endRule(applyRule);
+    }
+    if(events.isEmpty()) {
+      return;
+    }
+
+    List<IMavenProjectChangedListener> batchListeners = new ArrayList<IMavenProjectChangedListener>();
+    List<IMavenProjectChangedListener> lockingListeners = new ArrayList<IMavenProjectChangedListener>();
+    for(IMavenProjectChangedListener listener : getProjectChangeListeners()) {
+      if(listener instanceof IMavenProjectChangedBatchListener) {
+        batchListeners.add(listener);
+      } else {
+        lockingListeners.add(listener);
       }
-      listeners.addAll(ExtensionReader.readProjectChangedEventListenerExtentions());
-      for(IMavenProjectChangedListener listener : listeners) {
-        listener.mavenProjectChanged(eventsArray, monitor);
+    }
+
+    if(!batchListeners.isEmpty()) {
+      for(List<MavenProjectChangedEvent> batch : Lists.partition(events, EVENT_BATCH_SIZE)) {
+        Set<IProject> projects = new LinkedHashSet<IProject>();
+        for(MavenProjectChangedEvent event : batch) {
+          projects.add(event.getSource().getProject());
+        }
+        MavenProjectChangedEvent[] batchArray = batch.toArray(new MavenProjectChangedEvent[batch.size()]);
+        ISchedulingRule rule = MultiRule.combine(projects.toArray(new ISchedulingRule[projects.size()]));
+        jobManager.beginRule(rule, monitor);
+        try {
+          for(IMavenProjectChangedListener listener : batchListeners) {
+            listener.mavenProjectChanged(batchArray, monitor);
+          }
+        } finally {
+          jobManager.endRule(rule);
+        }
+      }
+    }
+
+    if(!lockingListeners.isEmpty()) {
+      MavenProjectChangedEvent[] eventsArray = events.toArray(new MavenProjectChangedEvent[events.size()]);
+      ISchedulingRule rule = ResourcesPlugin.getWorkspace().getRoot();
+      jobManager.beginRule(rule, monitor);
+      try {
+        for(IMavenProjectChangedListener listener : lockingListeners) {
+          listener.mavenProjectChanged(eventsArray, monitor);
+        }
+      } finally {
+        jobManager.endRule(rule);
       }
     }
   }
@@ -909,6 +1450,25 @@ public class ProjectRegistryManager {
     return new MutableProjectRegistry(projectRegistry);
   }
 
+  /**
+   * Returns scheduling rule that covers all projects added, changed or removed by the mutable project registry, or
+   * {@code null} if the mutable registry does not change any project.
+   */
+  ISchedulingRule getApplyRule(MutableProjectRegistry newState) {
+    Set<IProject> projects = new LinkedHashSet<IProject>();
+    for(MavenProjectFacade facade : projectRegistry.getProjects()) {
+      if(newState.getProjectFacade(facade.getPom()) != facade) {
+        projects.add(facade.getProject());
+      }
+    }
+    for(MavenProjectFacade facade : newState.getProjects()) {
+      if(projectRegistry.getProjectFacade(facade.getPom()) != facade) {
+        projects.add(facade.getProject());
+      }
+    }
+    return MultiRule.combine(projects.toArray(new ISchedulingRule[projects.size()]));
+  }
+
   /**
    * Applies mutable project registry to the primary project registry and and corresponding MavenProjectChangedEvent's
    * to all registered IMavenProjectChangedListener's. This method must be called from a thread holding workspace root's
@@ -918,6 +1478,18 @@ public class ProjectRegistryManager {
    *           been created
    */
   void applyMutableProjectRegistry(MutableProjectRegistry newState, IProgressMonitor monitor) throws CoreException {
+    notifyProjectChangeListeners(applyProjectRegistry(newState), monitor);
+  }
+
+  /**
+   * Applies mutable project registry to the primary project registry without notifying project change listeners and
+   * returns corresponding MavenProjectChangedEvent's. This method must be called from a thread holding scheduling rule
+   * returned by {@link #getApplyRule(MutableProjectRegistry)} or workspace root's lock.
+   * 
+   * @throws StaleMutableProjectRegistryException if primary project registry was modified after mutable registry has
+   *           been created
+   */
+  List<MavenProjectChangedEvent> applyProjectRegistry(MutableProjectRegistry newState) throws CoreException {
     // don't cache maven sessions
     for(MavenProjectFacade facade : newState.getProjects()) {
       MavenProject mavenProject = getMavenProject(facade);
@@ -926,13 +1498,26 @@ public class ProjectRegistryManager {
       }
     }
     List<MavenProjectChangedEvent> events = projectRegistry.apply(newState);
-    //stateReader.writeWorkspaceState(projectRegistry);
-    notifyProjectChangeListeners(events, monitor);
+    // facades of applied projects are in the registry now, keep checkpoints of other refreshes
+    for(MavenProjectChangedEvent event : events) {
+      refreshCheckpoints.invalidate(event.getSource());
+    }
+    if(stateReader != null) {
+      stateReader.appendWorkspaceState(projectRegistry, events);
+      if(stateReader.isCompactionNeeded()) {
+        stateCompactionJob.schedule(STATE_COMPACTION_DELAY);
+      }
+    }
+    return events;
   }
 
+  /**
+   * Persists workspace state. Changes are journaled as they are applied, so this only rewrites the full state if the
+   * journal needs compaction.
+   */
   public void writeWorkspaceState() {
     if(stateReader != null && projectRegistry != null) {
-      stateReader.writeWorkspaceState(projectRegistry);
+      stateReader.compactWorkspaceState(projectRegistry);
     }
   }
 
@@ -1073,7 +1658,7 @@ public class ProjectRegistryManager {
   private Cache<MavenProjectFacade, MavenProject> createProjectCache() {
     final RemovalListener<MavenProjectFacade, MavenProject> removalListener = new RemovalListener<MavenProjectFacade, MavenProject>() {
       public void onRemoval(RemovalNotification<MavenProjectFacade, MavenProject> notification) {
-        if(notification.getCause() == RemovalCause.SIZE || notification.getCause() == RemovalCause.REPLACED) {
+        if(notification.wasEvicted() || notification.getCause() == RemovalCause.REPLACED) {
           // there is currently no good way to determine if MavenProject instance is still being used or not
           // for now assume that cache entries removed from project cache can only be referenced by context map
           final MavenProjectFacade facade = notification.getKey();
@@ -1085,7 +1670,55 @@ public class ProjectRegistryManager {
         }
       }
     };
-    return CacheBuilder.newBuilder().maximumSize(5).removalListener(removalListener).build();
+    IMavenConfiguration configuration = MavenPlugin.getMavenConfiguration();
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    switch(ProjectCachePolicy.get(configuration.getProjectCachePolicy())) {
+      case weight:
+        builder.maximumWeight(configuration.getProjectCacheWeight()).weigher(
+            new Weigher<MavenProjectFacade, MavenProject>() {
+              public int weigh(MavenProjectFacade facade, MavenProject mavenProject) {
+                return 1 + mavenProject.getArtifacts().size() + mavenProject.getDependencies().size()
+                    + mavenProject.getBuildPlugins().size();
+              }
+            });
+        break;
+      case soft:
+        builder.softValues();
+        break;
+      default:
+        builder.maximumSize(configuration.getProjectCacheSize());
+        break;
+    }
+    return builder.removalListener(removalListener).build();
+  }
+
+  /**
+   * Returns hit, miss and eviction statistics of the MavenProject cache. The statistics are also shown in the Maven
+   * console after each registry refresh when Maven debug output is enabled.
+   */
+  public CacheStats getProjectCacheStats() {
+    return replacedProjectCacheStats.plus(mavenProjectCache.stats());
+  }
+
+  /**
+   * Replaces the MavenProject cache when project cache preferences change. Cached projects are moved to the new cache,
+   * projects that exceed the new limits are evicted right away.
+   */
+  public void mavenConfigurationChange(MavenConfigurationChangeEvent event) {
+    String key = event.getKey();
+    if(MavenPreferenceConstants.P_PROJECT_CACHE_POLICY.equals(key)
+        || MavenPreferenceConstants.P_PROJECT_CACHE_SIZE.equals(key)
+        || MavenPreferenceConstants.P_PROJECT_CACHE_WEIGHT.equals(key)) {
+      Cache<MavenProjectFacade, MavenProject> cache = createProjectCache();
+      synchronized(this) {
+        Cache<MavenProjectFacade, MavenProject> oldCache = mavenProjectCache;
+        mavenProjectCache = cache;
+        replacedProjectCacheStats = replacedProjectCacheStats.plus(oldCache.stats());
+        cache.putAll(oldCache.asMap());
+      }
+      log.debug("Maven project cache policy changed to {}", //$NON-NLS-1$
+          MavenPlugin.getMavenConfiguration().getProjectCachePolicy());
+    }
   }
 
   private Set<IFile> flushCaches(MutableProjectRegistry newState, IFile pom, MavenProjectFacade facade,
@@ -1123,6 +1756,29 @@ public class ProjectRegistryManager {
     return affected;
   }
 
+  private void logMavenCacheStatistics() {
+    try {
+      Object pluginRealmCache = maven.getPlexusContainer().lookup(PluginRealmCache.class);
+      if(pluginRealmCache instanceof EclipsePluginRealmCache) {
+        log.debug("Plugin realm cache: {}", ((EclipsePluginRealmCache) pluginRealmCache).getStatistics()); //$NON-NLS-1$
+      }
+      Object extensionRealmCache = maven.getPlexusContainer().lookup(ExtensionRealmCache.class);
+      if(extensionRealmCache instanceof EclipseExtensionRealmCache) {
+        log.debug("Extension realm cache: {}", //$NON-NLS-1$
+            ((EclipseExtensionRealmCache) extensionRealmCache).getStatistics());
+      }
+      Object metadataCache = maven.getPlexusContainer().lookup(MavenMetadataCache.class);
+      if(metadataCache instanceof EclipseMavenMetadataCache) {
+        log.debug("Metadata cache: {} entries removed", //$NON-NLS-1$
+            ((EclipseMavenMetadataCache) metadataCache).resetRemovedEntries());
+      }
+    } catch(ComponentLookupException ex) {
+      // can't really happen
+    } catch(CoreException ex) {
+      // can't really happen
+    }
+  }
+
   private Set<File> flushMavenCache(Class<?> clazz, File pom, ArtifactKey key, boolean force) {
     try {
       IManagedCache cache = (IManagedCache) maven.getPlexusContainer().lookup(clazz);
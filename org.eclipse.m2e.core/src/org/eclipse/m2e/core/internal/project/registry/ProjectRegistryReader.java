@@ -11,208 +11,315 @@
 
 package org.eclipse.m2e.core.internal.project.registry;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
-
-import org.osgi.framework.Bundle;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceReference;
-import org.osgi.framework.Version;
-import org.osgi.service.packageadmin.PackageAdmin;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.Path;
-import org.eclipse.osgi.service.resolver.VersionRange;
-
 import org.codehaus.plexus.util.IOUtil;
 
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 
 
 /**
- * Workspace state reader
+ * Workspace state reader.
+ * <p>
+ * Workspace state is stored in a versioned file that starts with a small header (magic number, format version, m2e
+ * version and state generation) followed by one record per workspace project, see {@link ProjectRecordCodec}. Each
+ * record holds project facade and project capabilities and requirements. Lookup maps that can be derived from these
+ * records, like workspace artifacts or required capabilities, are not persisted and are recalculated when the state is
+ * read.
+ * <p>
+ * All records are decoded when the state is read, individual facades are not materialized lazily. The registry is
+ * validated right after it is read by checking the pom of every facade and workspace artifacts are indexed by the
+ * artifact key of every facade, so an offset table that defers facade decoding would not save any work. The state file is read with a single bulk read instead of memory-mapping it,
+ * see {@link #readStateFile(MutableProjectRegistry, ProjectRegistryManager)}.
+ * <p>
+ * Changes applied to the registry between full state writes are appended to a journal file. Each journal entry is a
+ * length-prefixed record with added, changed and removed projects of one registry update. The journal is bound to the
+ * generation of the state file it was started for, incomplete trailing records are ignored when the journal is
+ * replayed. Full state is written to a temporary file first and then renamed over the previous state file.
  * 
  * @author Eugene Kuleshov
  */
 public class ProjectRegistryReader {
   private static final Logger log = LoggerFactory.getLogger(ProjectRegistryReader.class);
 
-  private static final String WORKSPACE_STATE = "workspaceState.ser"; //$NON-NLS-1$
+  private static final String WORKSPACE_STATE = "workspaceState.bin"; //$NON-NLS-1$
+
+  private static final String WORKSPACE_STATE_JOURNAL = "workspaceState.journal"; //$NON-NLS-1$
+
+  /**
+   * Workspace state file written by m2e 1.6 and earlier, deleted when new state is written.
+   */
+  private static final String LEGACY_WORKSPACE_STATE = "workspaceState.ser"; //$NON-NLS-1$
+
+  private static final int MAGIC = 0x4d324553; // M2ES
+
+  private static final int JOURNAL_MAGIC = 0x4d32454a; // M2EJ
+
+  private static final int FORMAT_VERSION = 4;
+
+  /**
+   * Journal is not compacted before it grows larger than this, or larger than the full state file.
+   */
+  private static final long MIN_COMPACTION_SIZE = 1024L * 1024L;
 
   private final File stateFile;
 
-  private static PackageAdmin packageAdmin;
+  private final File journalFile;
+
+  private final File legacyStateFile;
+
+  /**
+   * Generation of the state file the journal applies to, <code>0</code> if there is no state file.
+   */
+  private long generation;
+
+  /**
+   * <code>true</code> if the state file and the journal reflect the registry state appended to.
+   */
+  private boolean journalValid;
 
   public ProjectRegistryReader(File stateLocationDir) {
     this.stateFile = new File(stateLocationDir, WORKSPACE_STATE);
+    this.journalFile = new File(stateLocationDir, WORKSPACE_STATE_JOURNAL);
+    this.legacyStateFile = new File(stateLocationDir, LEGACY_WORKSPACE_STATE);
   }
 
-  public ProjectRegistry readWorkspaceState(final ProjectRegistryManager managerImpl) {
-    if(stateFile.exists()) {
-      final PackageAdmin packageAdmin = getPackageAdmin();
-      ObjectInputStream is = null;
-      try {
-        is = new ObjectInputStream(new BufferedInputStream(new FileInputStream(stateFile))) {
-          {
-            enableResolveObject(true);
-          }
+  public synchronized ProjectRegistry readWorkspaceState(final ProjectRegistryManager managerImpl) {
+    if(stateFile.exists() || journalFile.exists()) {
+      return readState(managerImpl);
+    }
+    return null;
+  }
 
-          protected Object resolveObject(Object o) throws IOException {
-            if(o instanceof IPathReplace) {
-              return ((IPathReplace) o).getPath();
-            } else if(o instanceof IFileReplace) {
-              return ((IFileReplace) o).getFile();
-            } else if(o instanceof MavenProjectManagerImplReplace) {
-              return managerImpl;
-            }
-            return super.resolveObject(o);
+  private ProjectRegistry readState(ProjectRegistryManager managerImpl) {
+    try {
+      ProjectRegistry state = new ProjectRegistry();
+      MutableProjectRegistry newState = new MutableProjectRegistry(state);
+      try {
+        long generation = 0;
+        if(stateFile.exists()) {
+          generation = readStateFile(newState, managerImpl);
+          if(generation <= 0) {
+            return null;
           }
-
-          protected java.lang.Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException,
-              ClassNotFoundException {
-            String symbolicName = (String) readObject();
-            if(symbolicName == null) {
-              return super.resolveClass(desc);
-            }
-            String versionStr = (String) readObject();
-            Version version = Version.parseVersion(versionStr);
-            VersionRange versionRange = new VersionRange(version, true, version, true);
-            Bundle[] bundles = packageAdmin.getBundles(symbolicName, versionRange.toString());
-            if(bundles == null || bundles.length != 1) {
-              throw new ClassNotFoundException("Could not find bundle " + symbolicName + "/" + version //$NON-NLS-1$ //$NON-NLS-2$
-                  + " required to load class " + desc.getName()); //$NON-NLS-1$
-            }
-            return bundles[0].loadClass(desc.getName());
-          };
-        };
-        return (ProjectRegistry) is.readObject();
-      } catch(Exception ex) {
-        log.error("Can't read workspace state", ex);
+        }
+        if(journalFile.exists() && !replayJournal(newState, managerImpl, generation)) {
+          deleteJournal();
+        }
+        state.apply(newState);
+        if(!state.isValid()) {
+          return null;
+        }
+        this.generation = generation;
+        this.journalValid = true;
       } finally {
-        IOUtil.close(is);
+        newState.close();
       }
+      return state;
+    } catch(Exception ex) {
+      log.error("Can't read workspace state", ex);
     }
     return null;
   }
 
-  private static synchronized PackageAdmin getPackageAdmin() {
-    // TODO inject dependencies already!
-    if(packageAdmin == null) {
-      BundleContext context = MavenPluginActivator.getDefault().getBundleContext();
-      ServiceReference serviceReference = context.getServiceReference(PackageAdmin.class.getName());
-      packageAdmin = (PackageAdmin) context.getService(serviceReference);
+  /**
+   * Reads state file records into the given registry and returns state generation, or <code>0</code> if the state file
+   * can not be used.
+   */
+  private long readStateFile(MutableProjectRegistry newState, ProjectRegistryManager managerImpl) throws IOException,
+      ClassNotFoundException {
+    // the file is read with single bulk read. memory-mapping is deliberately avoided, mapped files can't be replaced
+    // on some platforms until the mapping is garbage collected
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(stateFile.toPath())));
+    if(!readHeader(in, MAGIC, stateFile)) {
+      return 0;
     }
-    return packageAdmin;
+    long generation = in.readLong();
+    readRecords(in, newState, managerImpl);
+    return generation;
   }
 
-  public void writeWorkspaceState(ProjectRegistry state) {
-    final ClassLoader thisClassloader = getClass().getClassLoader();
-
-    final PackageAdmin packageAdmin = getPackageAdmin();
-
-    ObjectOutputStream os = null;
-    try {
-      os = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile))) {
-        {
-          enableReplaceObject(true);
-        }
+  /**
+   * Applies journal records to the given registry. Returns <code>false</code> if the journal does not match state
+   * generation and must be discarded.
+   */
+  private boolean replayJournal(MutableProjectRegistry newState, ProjectRegistryManager managerImpl, long generation)
+      throws IOException, ClassNotFoundException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(journalFile.toPath())));
+    if(!readHeader(in, JOURNAL_MAGIC, journalFile) || in.readLong() != generation) {
+      log.info("Ignoring workspace state journal {} that does not match workspace state", journalFile);
+      return false;
+    }
+    int records = 0;
+    while(in.available() >= 4) {
+      int length = in.readInt();
+      if(length < 0 || length > in.available()) {
+        // the last record was not completely written
+        log.warn("Ignoring incomplete record in workspace state journal {}", journalFile);
+        break;
+      }
+      byte[] record = new byte[length];
+      in.readFully(record);
+      readRecords(new DataInputStream(new ByteArrayInputStream(record)), newState, managerImpl);
+      records++ ;
+    }
+    log.debug("Replayed {} workspace state journal records", records);
+    return true;
+  }
 
-        protected Object replaceObject(Object o) throws IOException {
-          if(o instanceof IPath) {
-            return new IPathReplace((IPath) o);
-          } else if(o instanceof IFile) {
-            return new IFileReplace((IFile) o);
-          } else if(o instanceof ProjectRegistryManager) {
-            return new MavenProjectManagerImplReplace();
-          }
-          return super.replaceObject(o);
-        }
+  private boolean readHeader(DataInputStream in, int magic, File file) throws IOException {
+    if(in.readInt() != magic || in.readInt() != FORMAT_VERSION) {
+      log.info("Ignoring workspace state {} in unsupported format", file);
+      return false;
+    }
+    if(!MavenPluginActivator.getQualifiedVersion().equals(in.readUTF())) {
+      log.info("Ignoring workspace state {} written by different m2e version", file);
+      return false;
+    }
+    return true;
+  }
 
-        protected void annotateClass(java.lang.Class<?> cl) throws IOException {
-          // if the class is visible through this classloader, assume it will be during reading stream back
-          try {
-            Class<?> target = cl;
-            while(target.isArray()) {
-              target = target.getComponentType();
-            }
-
-            if(target.isPrimitive() || target.equals(thisClassloader.loadClass(target.getName()))) {
-              writeObject(null); // TODO is there a better way?
-              return;
-            }
-          } catch(ClassNotFoundException ex) {
-            // fall through
-          }
+  private void writeHeader(DataOutputStream out, int magic) throws IOException {
+    out.writeInt(magic);
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(MavenPluginActivator.getQualifiedVersion());
+  }
 
-          // foreign class
-          Bundle bundle = packageAdmin.getBundle(cl);
-          if(bundle != null) {
-            writeObject(bundle.getSymbolicName());
-            writeObject(bundle.getVersion().toString());
-          }
+  private static void readRecords(DataInputStream in, MutableProjectRegistry newState,
+      ProjectRegistryManager managerImpl) throws IOException, ClassNotFoundException {
+    ProjectRecordCodec.RecordReader reader = new ProjectRecordCodec.RecordReader(in, managerImpl);
+    for(int i = 0; i < reader.getCount(); i++ ) {
+      reader.readRecord(newState);
+    }
+  }
 
-          // TODO this will likely fail during desirialization
-        };
-      };
+  /**
+   * Writes full registry state and discards the journal.
+   */
+  public synchronized void writeWorkspaceState(ProjectRegistry state) {
+    long generation = Math.max(this.generation + 1, System.currentTimeMillis());
+    File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+    DataOutputStream out = null;
+    try {
+      ProjectRecordCodec.RecordWriter writer = new ProjectRecordCodec.RecordWriter(getClass().getClassLoader());
       synchronized(state) { // see MNGECLIPSE-860
-        os.writeObject(state);
+        for(MavenProjectFacade facade : state.getProjects()) {
+          writer.writeProject(state, facade);
+        }
       }
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+      writeHeader(out, MAGIC);
+      out.writeLong(generation);
+      writer.writeTo(out);
+      out.close();
+      out = null;
+      moveFile(tmpFile, stateFile);
+      this.generation = generation;
+      this.journalValid = true;
+      deleteJournal();
     } catch(Exception ex) {
       log.error("Can't write workspace state", ex);
     } finally {
-      IOUtil.close(os);
+      IOUtil.close(out);
+    }
+    if(legacyStateFile.exists() && !legacyStateFile.delete()) {
+      log.warn("Can't delete legacy workspace state {}", legacyStateFile);
     }
   }
 
   /**
-   * IPath replacement used for object serialization
+   * Appends projects affected by the given registry change events to the journal. Writes full registry state if the
+   * journal can not be used, i.e. if registry state was not read from the persisted state or the journal could not be
+   * written.
    */
-  private static final class IPathReplace implements Serializable {
-    private static final long serialVersionUID = -2361259525684491181L;
-
-    private final String path;
-
-    public IPathReplace(IPath path) {
-      this.path = path.toPortableString();
+  public synchronized void appendWorkspaceState(ProjectRegistry state, List<MavenProjectChangedEvent> events) {
+    if(events.isEmpty()) {
+      return;
     }
-
-    public IPath getPath() {
-      return Path.fromPortableString(path);
+    if(!journalValid) {
+      writeWorkspaceState(state);
+      return;
+    }
+    DataOutputStream out = null;
+    try {
+      ProjectRecordCodec.RecordWriter writer = new ProjectRecordCodec.RecordWriter(getClass().getClassLoader());
+      synchronized(state) {
+        for(MavenProjectChangedEvent event : events) {
+          // always record current facade, the registry may have changed since the event was created
+          MavenProjectFacade facade = state.getProjectFacade(event.getSource());
+          if(facade != null) {
+            writer.writeProject(state, facade);
+          } else {
+            writer.writeRemoved(event.getSource());
+          }
+        }
+      }
+      ByteArrayOutputStream buf = new ByteArrayOutputStream();
+      DataOutputStream os = new DataOutputStream(buf);
+      writer.writeTo(os);
+      os.close();
+
+      boolean newJournal = !journalFile.exists();
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+      if(newJournal) {
+        writeHeader(out, JOURNAL_MAGIC);
+        out.writeLong(generation);
+      }
+      out.writeInt(buf.size());
+      buf.writeTo(out);
+    } catch(Exception ex) {
+      log.error("Can't write workspace state journal", ex);
+      journalValid = false;
+    } finally {
+      IOUtil.close(out);
     }
   }
 
   /**
-   * IFile replacement used for object serialization
+   * Returns <code>true</code> if the journal grew large enough to be merged into full workspace state.
    */
-  private static final class IFileReplace implements Serializable {
-    private static final long serialVersionUID = -7266001068347075329L;
-
-    private final String path;
+  public synchronized boolean isCompactionNeeded() {
+    return journalFile.length() > Math.max(stateFile.length(), MIN_COMPACTION_SIZE);
+  }
 
-    public IFileReplace(IFile file) {
-      this.path = file.getFullPath().toPortableString();
+  /**
+   * Merges the journal into full workspace state if the journal grew too large or can not be used.
+   */
+  public synchronized void compactWorkspaceState(ProjectRegistry state) {
+    if(!journalValid || isCompactionNeeded()) {
+      writeWorkspaceState(state);
     }
+  }
 
-    public IFile getFile() {
-      IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-      return root.getFile(Path.fromPortableString(path));
+  private void deleteJournal() {
+    if(journalFile.exists() && !journalFile.delete()) {
+      log.warn("Can't delete workspace state journal {}", journalFile);
+      journalValid = false;
     }
   }
 
-  static final class MavenProjectManagerImplReplace implements Serializable {
-    private static final long serialVersionUID = 1995671440438776471L;
+  private static void moveFile(File source, File target) throws IOException {
+    try {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch(AtomicMoveNotSupportedException ex) {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
   }
 
 }
@@ -12,7 +12,11 @@
 package org.eclipse.m2e.core.internal.project.registry;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -22,13 +26,11 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
@@ -48,8 +50,28 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
 
   private static final long SCHEDULE_DELAY = 1000L;
 
+  /**
+   * Refresh is postponed while new requests keep arriving more often than this...
+   */
+  private static final long QUIET_PERIOD = 500L;
+
+  /**
+   * ... but not longer than this since the oldest queued request.
+   */
+  private static final long MAX_SCHEDULE_DELAY = 5000L;
+
   private final Set<MavenUpdateRequest> queue = new LinkedHashSet<MavenUpdateRequest>();
 
+  // the following fields are guarded by queue
+
+  private long firstQueuedTime;
+
+  private long lastQueuedTime;
+
+  private long queuedRequestCount;
+
+  private long mergedRequestCount;
+
   /*package*/final ProjectRegistryManager manager;
 
   private final IMavenConfiguration mavenConfiguration;
@@ -68,13 +90,23 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
   // Job
 
   public IStatus run(final IProgressMonitor monitor) {
-    monitor.beginTask(Messages.ProjectRegistryRefreshJob_task_refreshing, IProgressMonitor.UNKNOWN);
-    final ArrayList<MavenUpdateRequest> requests;
+    final List<MavenUpdateRequest> requests;
     synchronized(this.queue) {
-      requests = new ArrayList<MavenUpdateRequest>(this.queue);
+      long now = System.currentTimeMillis();
+      if(!this.queue.isEmpty() && now - lastQueuedTime < QUIET_PERIOD && now - firstQueuedTime < MAX_SCHEDULE_DELAY) {
+        // more requests are likely to follow, wait for them to merge everything into one refresh
+        schedule(QUIET_PERIOD - (now - lastQueuedTime));
+        return Status.OK_STATUS;
+      }
+      requests = coalesce(this.queue);
+      mergedRequestCount += this.queue.size() - requests.size();
+      log.debug("Merged {} queued refresh requests into {}, {} of {} requests merged since startup", //$NON-NLS-1$
+          new Object[] {this.queue.size(), requests.size(), mergedRequestCount, queuedRequestCount});
       this.queue.clear();
+      firstQueuedTime = 0;
     }
 
+    monitor.beginTask(Messages.ProjectRegistryRefreshJob_task_refreshing, IProgressMonitor.UNKNOWN);
     try {
       final MutableProjectRegistry newState = manager.newMutableProjectRegistry();
       try {
@@ -92,13 +124,8 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
               }, monitor);
             }
 
-            ISchedulingRule rule = ResourcesPlugin.getWorkspace().getRoot();
-            getJobManager().beginRule(rule, monitor);
-            try {
-              manager.applyMutableProjectRegistry(newState, monitor);
-            } finally {
-              getJobManager().endRule(rule);
-            }
+            // concurrent applies of the same projects are detected as stale registry
+            manager.applyAndNotifyProjectChangeListeners(newState, monitor);
             return null;
           }
         }, monitor);
@@ -116,6 +143,7 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
         this.queue.clear();
         this.queue.addAll(requests);
         if(!this.queue.isEmpty()) {
+          firstQueuedTime = lastQueuedTime = System.currentTimeMillis();
           schedule(SCHEDULE_DELAY);
         }
       }
@@ -171,11 +199,35 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
 
   private void queue(MavenUpdateRequest updateRequest) {
     synchronized(queue) {
-      queue.add(updateRequest);
+      if(queue.add(updateRequest)) {
+        lastQueuedTime = System.currentTimeMillis();
+        if(firstQueuedTime == 0) {
+          firstQueuedTime = lastQueuedTime;
+        }
+        queuedRequestCount++ ;
+      }
       log.debug("Queued refresh request: {}", updateRequest.toString()); //$NON-NLS-1$
     }
   }
 
+  /**
+   * Merges requests with the same offline and force dependency update flags into a single request for the union of
+   * their pom files. Merged requests are returned in the order their first constituent request was queued.
+   */
+  static List<MavenUpdateRequest> coalesce(Collection<MavenUpdateRequest> requests) {
+    Map<Integer, MavenUpdateRequest> merged = new LinkedHashMap<Integer, MavenUpdateRequest>();
+    for(MavenUpdateRequest request : requests) {
+      Integer key = (request.isOffline() ? 1 : 0) | (request.isForceDependencyUpdate() ? 2 : 0);
+      MavenUpdateRequest mergedRequest = merged.get(key);
+      if(mergedRequest == null) {
+        mergedRequest = new MavenUpdateRequest(request.isOffline(), request.isForceDependencyUpdate());
+        merged.put(key, mergedRequest);
+      }
+      mergedRequest.addPomFiles(request.getPomFiles());
+    }
+    return new ArrayList<MavenUpdateRequest>(merged.values());
+  }
+
   public void preferenceChange(PreferenceChangeEvent event) {
     boolean offline = mavenConfiguration.isOffline();
     boolean updateSnapshots = false;
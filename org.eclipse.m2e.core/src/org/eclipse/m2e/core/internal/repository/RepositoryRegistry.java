@@ -35,7 +35,7 @@ import org.apache.maven.wagon.authentication.AuthenticationInfo;
 import org.eclipse.m2e.core.embedder.ArtifactRepositoryRef;
 import org.eclipse.m2e.core.embedder.IMaven;
 import org.eclipse.m2e.core.embedder.ISettingsChangeListener;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
@@ -48,7 +48,8 @@ import org.eclipse.m2e.core.repository.IRepositoryRegistry;
  * 
  * @author igor
  */
-public class RepositoryRegistry implements IRepositoryRegistry, IMavenProjectChangedListener, ISettingsChangeListener {
+public class RepositoryRegistry implements IRepositoryRegistry, IMavenProjectChangedBatchListener,
+    ISettingsChangeListener {
   private static final Logger log = LoggerFactory.getLogger(RepositoryRegistry.class);
 
   private final IMaven maven;
@@ -110,7 +111,8 @@ public class RepositoryRegistry implements IRepositoryRegistry, IMavenProjectCha
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
     /*
-     * This method is called while holding workspace lock. Avoid long-running operations if possible. 
+     * This method is called while holding scheduling rule of the changed projects, it does not touch any resources.
+     * Avoid long-running operations if possible.
      */
 
     Settings settings = null;
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Sonatype, Inc. and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.project;
+
+/**
+ * Marker for {@link IMavenProjectChangedListener}s that do not need workspace lock.
+ * <p>
+ * Listeners implementing this interface are notified while holding scheduling rule of the projects referenced by the
+ * events only, and may be notified several times per registry refresh, each time with a batch of its events. Events of
+ * concurrent registry refreshes may be delivered between two batches. Listeners must not modify resources of other
+ * projects than the ones referenced by the events.
+ * <p>
+ * Background registry refreshes notify listeners implementing this interface first. Workspace lock is only taken
+ * afterwards, to notify listeners that do not implement this interface.
+ *
+ * @since 1.7
+ */
+public interface IMavenProjectChangedBatchListener extends IMavenProjectChangedListener {
+
+}
@@ -16,7 +16,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 
 public interface IMavenProjectChangedListener {
   /**
-   * This method is called while holding workspace lock.
+   * This method is called while holding workspace lock, unless the listener implements
+   * {@link IMavenProjectChangedBatchListener}.
    */
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor);
 }
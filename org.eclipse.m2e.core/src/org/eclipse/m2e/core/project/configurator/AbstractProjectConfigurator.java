@@ -118,6 +118,9 @@ public abstract class AbstractProjectConfigurator implements IExecutableExtensio
   /**
    * Updates project configuration according project changes.
    * <p>
+   * Since 1.7, this method is called while holding scheduling rule of the changed project, not workspace lock.
+   * Implementations must not modify resources of other projects.
+   * <p>
    * <i>Can be overwritten by subclass</i>
    * 
    * @param event a project change event
@@ -90,7 +90,7 @@ import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
@@ -103,7 +103,8 @@ import org.eclipse.m2e.editor.internal.Messages;
  * @author Eugene Kuleshov
  * @author Benjamin Bentmann
  */
-public class DependencyTreePage extends FormPage implements IMavenProjectChangedListener, IPomFileChangedListener {
+public class DependencyTreePage extends FormPage implements IMavenProjectChangedBatchListener,
+    IPomFileChangedListener {
   private static final Logger log = LoggerFactory.getLogger(DependencyTreePage.class);
 
   protected static final Object[] EMPTY = new Object[0];
@@ -97,7 +97,7 @@ import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.MavenPluginActivator;
 import org.eclipse.m2e.core.internal.preferences.MavenPreferenceConstants;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 import org.eclipse.m2e.core.ui.internal.M2EUIPluginActivator;
@@ -116,7 +116,7 @@ import org.eclipse.m2e.editor.internal.Messages;
  */
 @SuppressWarnings("restriction")
 public class MavenPomEditor extends FormEditor implements IResourceChangeListener, IShowEditorInput, IGotoMarker,
-    ISearchEditorAccess, IMavenProjectChangedListener {
+    ISearchEditorAccess, IMavenProjectChangedBatchListener {
   private static final Logger log = LoggerFactory.getLogger(MavenPomEditor.class);
 
   private static final String POM_XML = "pom.xml";
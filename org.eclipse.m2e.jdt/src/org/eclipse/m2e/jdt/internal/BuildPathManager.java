@@ -75,7 +75,7 @@ import org.eclipse.m2e.core.internal.IMavenConstants;
 import org.eclipse.m2e.core.internal.index.IndexManager;
 import org.eclipse.m2e.core.internal.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.internal.lifecyclemapping.LifecycleMappingFactory;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.IMavenProjectFacade;
 import org.eclipse.m2e.core.project.IMavenProjectRegistry;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
@@ -90,7 +90,8 @@ import org.eclipse.m2e.jdt.MavenJdtPlugin;
  * This class is responsible for mapping Maven classpath to JDT and back.
  */
 @SuppressWarnings("restriction")
-public class BuildPathManager implements IMavenProjectChangedListener, IResourceChangeListener, IClasspathManager {
+public class BuildPathManager implements IMavenProjectChangedBatchListener, IResourceChangeListener,
+    IClasspathManager {
   private static final Logger log = LoggerFactory.getLogger(BuildPathManager.class);
 
   // local repository variable
@@ -170,6 +171,8 @@ public class BuildPathManager implements IMavenProjectChangedListener, IResource
   }
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+    // classpath containers of the changed projects are set without workspace lock, container state is kept in plugin
+    // state location
     Set<IProject> projects = new HashSet<IProject>();
     monitor.setTaskName(Messages.BuildPathManager_monitor_setting_cp);
     for(int i = 0; i < events.length; i++ ) {
@@ -36,6 +36,8 @@ public class Messages extends NLS {
 
   public static String MavenJdtPlugin_job_name;
 
+  public static String MavenLaunchConfigurationListener_job_name;
+
   public static String MavenRuntimeClasspathProvider_error_unsupported;
 
   public static String OpenJavaDocAction_error_download;
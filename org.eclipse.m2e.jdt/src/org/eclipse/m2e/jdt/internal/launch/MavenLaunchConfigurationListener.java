@@ -11,11 +11,17 @@
 
 package org.eclipse.m2e.jdt.internal.launch;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationListener;
 import org.eclipse.jdt.core.IJavaProject;
@@ -23,11 +29,13 @@ import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jdt.launching.JavaRuntime;
 
 import org.eclipse.m2e.core.internal.IMavenConstants;
-import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.IMavenProjectChangedBatchListener;
 import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+import org.eclipse.m2e.jdt.internal.Messages;
 
 
-public class MavenLaunchConfigurationListener implements ILaunchConfigurationListener, IMavenProjectChangedListener {
+public class MavenLaunchConfigurationListener implements ILaunchConfigurationListener,
+    IMavenProjectChangedBatchListener {
   private static final Logger log = LoggerFactory.getLogger(MavenLaunchConfigurationListener.class);
 
   public void launchConfigurationAdded(ILaunchConfiguration configuration) {
@@ -60,6 +68,28 @@ public class MavenLaunchConfigurationListener implements ILaunchConfigurationLis
   }
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+    final List<MavenProjectChangedEvent> changes = new ArrayList<MavenProjectChangedEvent>();
+    for(MavenProjectChangedEvent event : events) {
+      if(event.getKind() == MavenProjectChangedEvent.KIND_ADDED
+          || event.getKind() == MavenProjectChangedEvent.KIND_REMOVED) {
+        changes.add(event);
+      }
+    }
+    if(changes.isEmpty()) {
+      return;
+    }
+    // shared launch configurations may be stored in any project, update them without holding project scheduling rules
+    Job job = new Job(Messages.MavenLaunchConfigurationListener_job_name) {
+      protected IStatus run(IProgressMonitor monitor) {
+        updateLaunchConfigurations(changes);
+        return Status.OK_STATUS;
+      }
+    };
+    job.setSystem(true);
+    job.schedule();
+  }
+
+  void updateLaunchConfigurations(List<MavenProjectChangedEvent> events) {
     for(MavenProjectChangedEvent event : events) {
       try {
         switch(event.getKind()) {